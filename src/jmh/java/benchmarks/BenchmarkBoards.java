@@ -0,0 +1,64 @@
+package benchmarks;
+
+import dtos.SolutionStepAddDTO;
+import utils.BitMatrix;
+import utils.Board;
+import utils.QuietPatterns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class BenchmarkBoards {
+    public BenchmarkBoards() {}
+
+    public static long[] randomPresses(int n, long seed) {
+        Random random = new Random(seed);
+        long[] presses = new long[BitMatrix.wordsFor(n * n)];
+        for (int cell = 0; cell < n * n; cell++)
+            if (random.nextBoolean()) BitMatrix.setBit(presses, cell);
+        return presses;
+    }
+
+    public static Board solvedBy(int n, long[] presses) {
+        long[] cells = new long[BitMatrix.wordsFor(n * n)];
+        for (int cell = 0; cell < n * n; cell++)
+            BitMatrix.setBit(cells, cell);
+
+        for (int cell = 0; cell < n * n; cell++) {
+            if (!BitMatrix.testBit(presses, cell)) continue;
+            int x = cell % n;
+            int y = cell / n;
+            BitMatrix.flipBit(cells, cell);
+            if (x > 0) BitMatrix.flipBit(cells, cell - 1);
+            if (x < n - 1) BitMatrix.flipBit(cells, cell + 1);
+            if (y > 0) BitMatrix.flipBit(cells, cell - n);
+            if (y < n - 1) BitMatrix.flipBit(cells, cell + n);
+        }
+        return new Board(n, cells);
+    }
+
+    public static Board unsolvable(int n, long seed) {
+        Board board = solvedBy(n, randomPresses(n, seed));
+        long[][] patterns = QuietPatterns.forSize(n);
+        if (patterns.length == 0)
+            throw new IllegalArgumentException("Every " + n + "x" + n + " board is solvable");
+
+        long[] cells = board.getCells().clone();
+        for (int cell = 0; cell < n * n; cell++) {
+            if (BitMatrix.testBit(patterns[0], cell)) {
+                BitMatrix.flipBit(cells, cell);
+                break;
+            }
+        }
+        return new Board(n, cells);
+    }
+
+    public static List<SolutionStepAddDTO> steps(int n, long[] presses) {
+        List<SolutionStepAddDTO> steps = new ArrayList<>();
+        for (int cell = 0; cell < n * n; cell++)
+            if (BitMatrix.testBit(presses, cell))
+                steps.add(new SolutionStepAddDTO(cell % n, n - 1 - cell / n, steps.size() + 1));
+        return steps;
+    }
+}
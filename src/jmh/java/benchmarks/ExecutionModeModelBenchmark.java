@@ -0,0 +1,128 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A model of the two modes of {@code EndpointExecutor}, not a measurement of it: a fixed platform pool standing
+ * in for the worker pool, and virtual threads, both contending for a semaphore standing in for the connection
+ * pool. A request holds a connection for {@code dbMicros} and then parks {@code ioMicros}. Vert.x dispatch and the
+ * {@code QuarkusTransaction} wrapping are not exercised, so the numbers only show how the thread models compare
+ * under that contention. {@code burst} reports the time to finish {@code concurrency} simultaneous requests;
+ * {@code request} samples single-request latency while {@code concurrency} other requests are in flight.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeModelBenchmark {
+    @Param({"worker", "virtual"})
+    public String mode;
+
+    @Param({"200", "2000"})
+    public int concurrency;
+
+    @Param({"200"})
+    public int workerThreads;
+
+    @Param({"16"})
+    public int connections;
+
+    @Param({"200"})
+    public long dbMicros;
+
+    @Param({"0", "5000"})
+    public long ioMicros;
+
+    private ExecutorService executor;
+    private Semaphore pool;
+    private Semaphore inFlight;
+    private Thread load;
+    private volatile boolean loading;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(workerThreads);
+        pool = new Semaphore(connections, true);
+    }
+
+    @Setup(Level.Iteration)
+    public void startLoad(BenchmarkParams params) {
+        if (!params.getBenchmark().endsWith("request")) return;
+
+        inFlight = new Semaphore(concurrency);
+        loading = true;
+        load = Thread.ofPlatform().daemon().start(() -> {
+            while (true) {
+                inFlight.acquireUninterruptibly();
+                if (!loading) {
+                    inFlight.release();
+                    return;
+                }
+                executor.execute(() -> {
+                    try {
+                        handle();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Waits until every loaded request has finished, so none of them runs into the next iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void stopLoad() throws InterruptedException {
+        loading = false;
+        if (load != null) {
+            load.join();
+            inFlight.acquireUninterruptibly(concurrency);
+            load = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void burst() throws Exception {
+        List<Future<?>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++)
+            requests.add(executor.submit(this::handle));
+        for (Future<?> request : requests)
+            request.get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void request() throws Exception {
+        executor.submit(this::handle).get();
+    }
+
+    private void handle() {
+        pool.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbMicros));
+        } finally {
+            pool.release();
+        }
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ioMicros));
+    }
+}
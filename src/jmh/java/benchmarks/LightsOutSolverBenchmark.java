@@ -0,0 +1,76 @@
+package benchmarks;
+
+import dtos.SolutionStepAddDTO;
+import exceptions.not_solvable.NotSolvableException;
+import org.openjdk.jmh.annotations.*;
+import utils.Board;
+import utils.LightsOutSolver;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LightsOutSolverBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SolvableBoard {
+        @Param({"3", "4", "5", "8", "16", "32", "64"})
+        public int size;
+
+        public Board board;
+        public List<SolutionStepAddDTO> solution;
+        public List<SolutionStepAddDTO> wrongSolution;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            long[] presses = BenchmarkBoards.randomPresses(size, 42);
+            board = BenchmarkBoards.solvedBy(size, presses);
+            solution = BenchmarkBoards.steps(size, presses);
+            wrongSolution = solution.subList(0, solution.size() - 1);
+            LightsOutSolver.checkIfSolvable(board);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class UnsolvableBoard {
+        @Param({"4", "5", "9", "16", "19", "32", "64"})
+        public int size;
+
+        public Board board;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            board = BenchmarkBoards.unsolvable(size, 42);
+        }
+    }
+
+    @Benchmark
+    public Board checkIfSolvable(SolvableBoard state) {
+        LightsOutSolver.checkIfSolvable(state.board);
+        return state.board;
+    }
+
+    @Benchmark
+    public boolean checkIfSolvableUnsolvable(UnsolvableBoard state) {
+        try {
+            LightsOutSolver.checkIfSolvable(state.board);
+            return true;
+        } catch (NotSolvableException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean checkIfCorrectSolution(SolvableBoard state) {
+        return LightsOutSolver.checkIfCorrectSolution(state.board, state.solution);
+    }
+
+    @Benchmark
+    public boolean checkIfCorrectSolutionWrong(SolvableBoard state) {
+        return LightsOutSolver.checkIfCorrectSolution(state.board, state.wrongSolution);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import dtos.SolutionStepAddDTO;
+import dtos.SolutionStepGetDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolutionStepBenchmark {
+    @Param({"3", "4", "5", "8", "16", "32", "64"})
+    public int size;
+
+    private List<SolutionStepAddDTO> stepAddDTOS;
+    private int[] moves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long[] presses = BenchmarkBoards.randomPresses(size, 42);
+        stepAddDTOS = BenchmarkBoards.steps(size, presses);
+
+        moves = new int[stepAddDTOS.size()];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = stepAddDTOS.get(i).move(size);
+    }
+
+    @Benchmark
+    public void move(Blackhole blackhole) {
+        for (SolutionStepAddDTO step : stepAddDTOS)
+            blackhole.consume(step.move(size));
+    }
+
+    @Benchmark
+    public List<SolutionStepGetDTO> convertToDTO() {
+        return SolutionStepGetDTO.convertToDTO(moves, size);
+    }
+}
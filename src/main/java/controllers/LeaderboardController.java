@@ -0,0 +1,110 @@
+package controllers;
+
+import dtos.LeaderboardEntryDTO;
+import dtos.ProblemRecordDTO;
+import exceptions.ErrorResponse;
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import services.LeaderboardService;
+
+import java.util.List;
+
+@Timed(value = "lights_out.endpoint", histogram = true)
+@Path("/leaderboards")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @GET
+    @Path("/solvers")
+    @Produces(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "Players ranked by the number of distinct problems they solved",
+        content = @Content(
+            schema = @Schema(implementation = LeaderboardEntryDTO.class),
+            examples = {
+                @ExampleObject(name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                [
+                                  { "rank": 1, "username": "player1", "score": 42 },
+                                  { "rank": 2, "username": "player2", "score": 17 }
+                                ]
+                                """)
+            }
+        ))
+    @APIResponse(responseCode = "400", description = "Bad Request",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Invalid Limit",
+                        summary = "Invalid Limit",
+                        value = "{ \"message\": \"Invalid limit: 0\" }")
+            }
+        ))
+    public Uni<List<LeaderboardEntryDTO>> getTopSolvers(@QueryParam("limit") @DefaultValue("10") int limit) {
+        return leaderboardService.getTopSolversReactive(limit);
+    }
+
+    @GET
+    @Path("/record-holders")
+    @Produces(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "Players ranked by the number of problems where they hold the fewest-move solution",
+        content = @Content(
+            schema = @Schema(implementation = LeaderboardEntryDTO.class),
+            examples = {
+                @ExampleObject(name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                [
+                                  { "rank": 1, "username": "player2", "score": 9 },
+                                  { "rank": 2, "username": "player1", "score": 4 }
+                                ]
+                                """)
+            }
+        ))
+    @APIResponse(responseCode = "400", description = "Bad Request",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Invalid Limit",
+                        summary = "Invalid Limit",
+                        value = "{ \"message\": \"Invalid limit: 0\" }")
+            }
+        ))
+    public Uni<List<LeaderboardEntryDTO>> getTopRecordHolders(@QueryParam("limit") @DefaultValue("10") int limit) {
+        return leaderboardService.getTopRecordHoldersReactive(limit);
+    }
+
+    @GET
+    @Path("/problems/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "OK",
+        content = @Content(
+            schema = @Schema(implementation = ProblemRecordDTO.class),
+            examples = {
+                @ExampleObject(name = "Valid Response",
+                        summary = "Valid Response",
+                        value = "{ \"problemId\": 12, \"steps\": 3, \"holder\": \"player2\" }")
+            }
+        ))
+    @APIResponse(responseCode = "404", description = "Not Found",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "No Solutions",
+                        summary = "No Solutions",
+                        value = "{ \"message\": \"No solutions for problem with id 1234\" }")
+            }
+        ))
+    public Uni<ProblemRecordDTO> getProblemRecord(@PathParam("id") Long id) {
+        return leaderboardService.getProblemRecordReactive(id);
+    }
+}
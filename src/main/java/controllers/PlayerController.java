@@ -4,6 +4,8 @@ import dtos.PaginatedResponse;
 import dtos.PlayerAddDTO;
 import dtos.PlayerGetDTO;
 import exceptions.ErrorResponse;
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Uni;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -13,13 +15,17 @@ import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.jboss.resteasy.reactive.ResponseStatus;
+import services.EndpointExecutor;
 import services.PlayerService;
 
+@Timed(value = "lights_out.endpoint", histogram = true)
 @Path("/players")
 public class PlayerController {
     private final PlayerService playerService;
-    public PlayerController(PlayerService playerService) {
+    private final EndpointExecutor endpointExecutor;
+    public PlayerController(PlayerService playerService, EndpointExecutor endpointExecutor) {
         this.playerService = playerService;
+        this.endpointExecutor = endpointExecutor;
     }
 
     @GET
@@ -46,7 +52,8 @@ public class PlayerController {
                                   "totalPages": 1,
                                   "currentPage": 0,
                                   "size": 10,
-                                  "hasNext": false
+                                  "hasNext": false,
+                                  "nextCursor": null
                                 }
                                 """)
             }
@@ -66,16 +73,22 @@ public class PlayerController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }")
             }
         ))
-    public PaginatedResponse<PlayerGetDTO> getAllPlayers(
+    public Uni<PaginatedResponse<PlayerGetDTO>> getAllPlayers(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("sortBy") @DefaultValue("username") String sortBy,
-            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder
+            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal
     ) {
-        return playerService.getAllPlayers(page, size, sortBy, sortOrder);
+        return endpointExecutor.run("players-list",
+                () -> playerService.getAllPlayers(page, size, sortBy, sortOrder, after, includeTotal));
     }
 
     @GET
@@ -99,8 +112,8 @@ public class PlayerController {
                         value = "{ \"message\": \"Player player17 not found\" }")
             }
         ))
-    public PlayerGetDTO getPlayerByUsername(@PathParam("username") String username) {
-        return playerService.getPlayerByUsername(username);
+    public Uni<PlayerGetDTO> getPlayerByUsername(@PathParam("username") String username) {
+        return playerService.getPlayerByUsernameReactive(username);
     }
 
     @POST
@@ -165,7 +178,7 @@ public class PlayerController {
                     summary = "Valid Request Body",
                     value = "{\"username\": \"player7\", \"age\": 25}")
         ))
-    public PlayerGetDTO createPlayer(@Valid PlayerAddDTO player) {
-        return playerService.createPlayer(player);
+    public Uni<PlayerGetDTO> createPlayer(@Valid PlayerAddDTO player) {
+        return endpointExecutor.run("players-create", () -> playerService.createPlayer(player));
     }
 }
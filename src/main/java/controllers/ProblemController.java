@@ -1,12 +1,20 @@
 package controllers;
 
+import dtos.OptimalSolutionGetDTO;
 import dtos.PaginatedResponse;
 import dtos.ProblemAddDTO;
+import dtos.ProblemExportDTO;
 import dtos.ProblemGetDTO;
+import dtos.ProblemImportResultDTO;
 import exceptions.ErrorResponse;
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Uni;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
@@ -14,14 +22,22 @@ import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.resteasy.reactive.ResponseStatus;
+import services.EndpointExecutor;
 import services.ProblemService;
 
+import java.io.InputStream;
+
 @Tag(name = "Problem Controller", description = "Problems are represented as a flattened matrix in a string")
+@Timed(value = "lights_out.endpoint", histogram = true)
 @Path("/problems")
 public class ProblemController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ProblemService problemService;
-    public ProblemController(ProblemService problemService) {
+    private final EndpointExecutor endpointExecutor;
+    public ProblemController(ProblemService problemService, EndpointExecutor endpointExecutor) {
         this.problemService = problemService;
+        this.endpointExecutor = endpointExecutor;
     }
 
     @GET
@@ -38,18 +54,21 @@ public class ProblemController {
                               "content": [
                                 {
                                   "description": "011101110",
-                                  "solver": "player1"
+                                  "solver": "player1",
+                                  "optimalMoves": 3
                                 },
                                 {
                                   "description": "011101000",
-                                  "solver": "player8"
+                                  "solver": "player8",
+                                  "optimalMoves": 3
                                 }
                               ],
                               "totalElements": 2,
                               "totalPages": 1,
                               "currentPage": 0,
                               "size": 10,
-                              "hasNext": false
+                              "hasNext": false,
+                              "nextCursor": null
                             }
                             """
                 )
@@ -70,16 +89,27 @@ public class ProblemController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }"),
+                @ExampleObject(name = "Invalid Moves Range",
+                        summary = "Invalid Moves Range",
+                        value = "{ \"message\": \"Invalid moves range: 5 > 3\" }")
             }
         ))
-    public PaginatedResponse<ProblemGetDTO> getAllProblems(
+    public Uni<PaginatedResponse<ProblemGetDTO>> getAllProblems(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("sortBy") @DefaultValue("username") String sortBy,
-            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder
+            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @QueryParam("minMoves") Integer minMoves,
+            @QueryParam("maxMoves") Integer maxMoves
     ) {
-        return problemService.getAllProblems(page, size, sortBy, sortOrder);
+        return endpointExecutor.run("problems-list",
+                () -> problemService.getAllProblems(page, size, sortBy, sortOrder, after, includeTotal, minMoves, maxMoves));
     }
 
     @GET
@@ -97,18 +127,21 @@ public class ProblemController {
                   "content": [
                     {
                       "description": "011101110",
-                      "solver": "player1"
+                      "solver": "player1",
+                      "optimalMoves": 3
                     },
                     {
                       "description": "011101000",
-                      "solver": "player1"
+                      "solver": "player1",
+                      "optimalMoves": 3
                     }
                   ],
                   "totalElements": 2,
                   "totalPages": 1,
                   "currentPage": 0,
                   "size": 10,
-                  "hasNext": false
+                  "hasNext": false,
+                  "nextCursor": null
                 }
                 """
                 )
@@ -126,7 +159,13 @@ public class ProblemController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }"),
+                @ExampleObject(name = "Invalid Moves Range",
+                        summary = "Invalid Moves Range",
+                        value = "{ \"message\": \"Invalid moves range: 5 > 3\" }")
             }
         ))
     @APIResponse(responseCode = "404", description = "Not Found",
@@ -138,13 +177,20 @@ public class ProblemController {
                         value = "{ \"message\": \"Player player17 not found\" }")
             }
         ))
-    public PaginatedResponse<ProblemGetDTO> getProblemsByCreator(
+    public Uni<PaginatedResponse<ProblemGetDTO>> getProblemsByCreator(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
+            @QueryParam("sortBy") @DefaultValue("description") String sortBy,
             @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @QueryParam("minMoves") Integer minMoves,
+            @QueryParam("maxMoves") Integer maxMoves,
             @PathParam("username") String username
     ) {
-        return problemService.getProblemsByCreator(username, page, size, sortOrder);
+        return endpointExecutor.run("problems-by-creator",
+                () -> problemService.getProblemsByCreator(username, page, size, sortBy, sortOrder, after, includeTotal,
+                        minMoves, maxMoves));
     }
 
     @GET
@@ -160,7 +206,44 @@ public class ProblemController {
                         value = """
                                 {
                                   "description": "011101110",
-                                  "solver": "player1"
+                                  "solver": "player1",
+                                  "optimalMoves": 3
+                                }
+                                """
+                )
+            }
+        ))
+    @APIResponse(responseCode = "404", description = "Not Found",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Problem Not Found",
+                        summary = "Problem not found",
+                        value = "{ \"message\": \"Problem with id 1234 not found\" }")
+            }
+        ))
+    public Uni<ProblemGetDTO> getProblemById(@PathParam("id") Long id) {
+        return problemService.getProblemByIdReactive(id);
+    }
+
+    @GET
+    @Path("/{id}/solution")
+    @Produces(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "The minimal-move solution, or a non-minimal one (optimal: false) for sizes too large to search",
+        content = @Content(
+            schema = @Schema(implementation = OptimalSolutionGetDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                {
+                                  "moves": 2,
+                                  "optimal": true,
+                                  "steps": [
+                                    {"x": 1, "y": 0, "stepIndex": 1},
+                                    {"x": 2, "y": 2, "stepIndex": 2}
+                                  ]
                                 }
                                 """
                 )
@@ -175,15 +258,15 @@ public class ProblemController {
                         value = "{ \"message\": \"Problem with id 1234 not found\" }")
             }
         ))
-    public ProblemGetDTO getProblemById(@PathParam("id") Long id) {
-        return problemService.getProblemById(id);
+    public Uni<OptimalSolutionGetDTO> getOptimalSolution(@PathParam("id") Long id) {
+        return endpointExecutor.run("problems-optimal-solution", () -> problemService.getOptimalSolution(id));
     }
 
     @POST
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
     @ResponseStatus(201)
-    @APIResponse(responseCode = "201", description = "OK",
+    @APIResponse(responseCode = "201", description = "OK; optimalMoves is filled in shortly after by a background search",
         content = @Content(
             schema = @Schema(implementation = ProblemGetDTO.class),
             examples = {
@@ -193,7 +276,8 @@ public class ProblemController {
                     value = """
                             {
                               "description": "011101110",
-                              "solver": "player1"
+                              "solver": "player1",
+                              "optimalMoves": null
                             }
                             """
                 )
@@ -211,7 +295,7 @@ public class ProblemController {
                         value = "{ \"message\": \"Problem must be a square\" }"),
                 @ExampleObject(name = "Wrong size",
                         summary = "Wrong size",
-                        value = "{ \"message\": \"Problem must be off size between 3x3 and 8x8\" }"),
+                        value = "{ \"message\": \"Problem must be off size between 3x3 and 1024x1024\" }"),
                 @ExampleObject(name = "Wrong char",
                         summary = "Wrong char",
                         value = "{ \"message\": \"Problem description can contain only 0 and 1 characters\" }")
@@ -244,7 +328,68 @@ public class ProblemController {
                             summary = "Valid Request Body",
                             value = "{\"description\": \"101110111\", \"creator\": \"player19\"}")
             ))
-    public ProblemGetDTO createProblem(@Valid ProblemAddDTO problemAddDTO) {
-        return problemService.createProblem(problemAddDTO);
+    public Uni<ProblemGetDTO> createProblem(@Valid ProblemAddDTO problemAddDTO) {
+        return endpointExecutor.run("problems-create", () -> problemService.createProblem(problemAddDTO));
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes(NDJSON)
+    @Produces(NDJSON)
+    @APIResponse(responseCode = "200", description = "One result line per input line, in input order",
+        content = @Content(
+            mediaType = NDJSON,
+            schema = @Schema(implementation = ProblemImportResultDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                {"line":1,"status":201,"message":null,"id":12}
+                                {"line":2,"status":400,"message":"Problem not solvable","id":null}
+                                {"line":3,"status":409,"message":"Problem already exists","id":null}
+                                """
+                )
+            }
+        ))
+    @RequestBody(
+            content = @Content(
+                    mediaType = NDJSON,
+                    schema = @Schema(implementation = ProblemAddDTO.class),
+                    examples = @ExampleObject(
+                            name = "Valid Request Body",
+                            summary = "One problem per line",
+                            value = """
+                                    {"description": "101110111", "creator": "player19"}
+                                    {"description": "011101110", "creator": "player19"}
+                                    """)
+            ))
+    public StreamingOutput importProblems(InputStream input) {
+        return output -> problemService.importProblems(input, output);
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    @APIResponse(responseCode = "200", description = "Every problem, one per line, streamed from a database cursor",
+        content = @Content(
+            mediaType = NDJSON,
+            schema = @Schema(implementation = ProblemExportDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                {"id":12,"description":"101110111","creator":"player19"}
+                                {"id":13,"description":"011101110","creator":"player19"}
+                                """
+                )
+            }
+        ))
+    public Response exportProblems(@QueryParam("gzip") @DefaultValue("false") boolean gzip) {
+        StreamingOutput body = output -> problemService.exportProblems(output, gzip);
+        return gzip
+                ? Response.ok(body).header(HttpHeaders.CONTENT_ENCODING, "gzip").build()
+                : Response.ok(body).build();
     }
 }
@@ -2,22 +2,37 @@ package controllers;
 
 import dtos.*;
 import exceptions.ErrorResponse;
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Uni;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.ExampleObject;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.jboss.resteasy.reactive.ResponseStatus;
+import services.EndpointExecutor;
 import services.SolutionService;
 
+import java.util.List;
+
+@Timed(value = "lights_out.endpoint", histogram = true)
 @Path("/solutions")
 public class SolutionController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final SolutionService solutionService;
-    public SolutionController(SolutionService solutionService) {
+    private final EndpointExecutor endpointExecutor;
+    public SolutionController(SolutionService solutionService, EndpointExecutor endpointExecutor) {
         this.solutionService = solutionService;
+        this.endpointExecutor = endpointExecutor;
     }
 
     @GET
@@ -52,7 +67,8 @@ public class SolutionController {
                                   "totalPages": 1,
                                   "currentPage": 0,
                                   "size": 10,
-                                  "hasNext": false
+                                  "hasNext": false,
+                                  "nextCursor": null
                                 }
                                 """
                 )
@@ -73,16 +89,27 @@ public class SolutionController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }"),
+                @ExampleObject(name = "Invalid Efficiency Range",
+                        summary = "Invalid Efficiency Range",
+                        value = "{ \"message\": \"Invalid efficiency range: 2.0 > 1.5\" }")
             }
         ))
-    public PaginatedResponse<SolutionGetDTO> getAllSolutions(
+    public Uni<PaginatedResponse<SolutionGetDTO>> getAllSolutions(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("sortBy") @DefaultValue("solver") String sortBy,
-            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder
+            @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @QueryParam("minEfficiency") Double minEfficiency,
+            @QueryParam("maxEfficiency") Double maxEfficiency
     ) {
-        return solutionService.getAllSolutions(page, size, sortBy, sortOrder);
+        return endpointExecutor.run("solutions-list", () -> solutionService.getAllSolutions(page, size, sortBy, sortOrder,
+                after, includeTotal, minEfficiency, maxEfficiency));
     }
 
     @GET
@@ -111,7 +138,8 @@ public class SolutionController {
                                   "totalPages": 1,
                                   "currentPage": 0,
                                   "size": 10,
-                                  "hasNext": false
+                                  "hasNext": false,
+                                  "nextCursor": null
                                 }
                                 """
                 )
@@ -132,7 +160,13 @@ public class SolutionController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }"),
+                @ExampleObject(name = "Invalid Efficiency Range",
+                        summary = "Invalid Efficiency Range",
+                        value = "{ \"message\": \"Invalid efficiency range: 2.0 > 1.5\" }")
             }
         ))
     @APIResponse(responseCode = "404", description = "Not Found",
@@ -146,14 +180,20 @@ public class SolutionController {
                 )
             }
         ))
-    public PaginatedResponse<SolutionGetDTO> getSolutionsBySolver(
+    public Uni<PaginatedResponse<SolutionGetDTO>> getSolutionsBySolver(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("sortBy") @DefaultValue("steps") String sortBy,
             @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @QueryParam("minEfficiency") Double minEfficiency,
+            @QueryParam("maxEfficiency") Double maxEfficiency,
             @PathParam("username") String username
     ) {
-        return solutionService.getSolutionsBySolver(username, page, size, sortBy, sortOrder);
+        return endpointExecutor.run("solutions-by-solver",
+                () -> solutionService.getSolutionsBySolver(username, page, size, sortBy, sortOrder, after, includeTotal,
+                        minEfficiency, maxEfficiency));
     }
 
     @GET
@@ -182,7 +222,8 @@ public class SolutionController {
                                   "totalPages": 1,
                                   "currentPage": 0,
                                   "size": 10,
-                                  "hasNext": false
+                                  "hasNext": false,
+                                  "nextCursor": null
                                 }
                                 """
                 )
@@ -203,7 +244,13 @@ public class SolutionController {
                         value = "{ \"message\": \"Invalid page number: -1\" }"),
                 @ExampleObject(name = "Invalid Size Number",
                         summary = "Invalid Size Number",
-                        value = "{ \"message\": \"Invalid size number: 0\" }")
+                        value = "{ \"message\": \"Invalid size number: 0\" }"),
+                @ExampleObject(name = "Invalid Cursor",
+                        summary = "Invalid Cursor",
+                        value = "{ \"message\": \"Invalid cursor: abc\" }"),
+                @ExampleObject(name = "Invalid Efficiency Range",
+                        summary = "Invalid Efficiency Range",
+                        value = "{ \"message\": \"Invalid efficiency range: 2.0 > 1.5\" }")
             }
         ))
     @APIResponse(responseCode = "404", description = "Not Found",
@@ -217,13 +264,19 @@ public class SolutionController {
                 )
             }
         ))
-    public PaginatedResponse<SolutionGetDTO> getSolutionsByProblemId(
+    public Uni<PaginatedResponse<SolutionGetDTO>> getSolutionsByProblemId(
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("10") int size,
             @QueryParam("sortBy") @DefaultValue("solver") String sortBy,
             @QueryParam("sortOrder") @DefaultValue("asc") String sortOrder,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
+            @QueryParam("minEfficiency") Double minEfficiency,
+            @QueryParam("maxEfficiency") Double maxEfficiency,
             @PathParam("id") Long id) {
-        return solutionService.getSolutionsByProblemId(id, page, size, sortBy, sortOrder);
+        return endpointExecutor.run("solutions-by-problem",
+                () -> solutionService.getSolutionsByProblemId(id, page, size, sortBy, sortOrder, after, includeTotal,
+                        minEfficiency, maxEfficiency));
     }
 
     @POST
@@ -294,6 +347,14 @@ public class SolutionController {
                         value = "{ \"message\": \"Player player7 not found\" }"),
             }
         ))
+    @APIResponse(responseCode = "409", description = "Conflict",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Duplicate solution",
+                        summary = "Same pressed cells already submitted by the solver (when duplicates are rejected)",
+                        value = "{ \"message\": \"Solution already submitted\" }")
+            }
+        ))
     @RequestBody(
         content = @Content(
                 mediaType = MediaType.APPLICATION_JSON,
@@ -312,7 +373,219 @@ public class SolutionController {
                                 }
                                 """)
         ))
-    public SolutionGetDTO createSolution(@Valid SolutionAddDTO solutionAddDTO) {
-        return solutionService.createSolution(solutionAddDTO);
+    public Uni<SolutionGetDTO> createSolution(@Valid SolutionAddDTO solutionAddDTO) {
+        return endpointExecutor.run("solutions-create", () -> solutionService.createSolution(solutionAddDTO));
+    }
+
+    @POST
+    @Path("/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "OK",
+        content = @Content(
+            schema = @Schema(implementation = SolutionBatchResultDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Valid Response",
+                        summary = "Per-item results in request order",
+                        value = """
+                                [
+                                  {
+                                    "index": 0,
+                                    "status": 201,
+                                    "message": null,
+                                    "solution": {
+                                      "solver": "player1",
+                                      "problem": "011101110",
+                                      "steps": [
+                                        {"x": 1, "y": 1, "stepIndex": 1}
+                                      ]
+                                    }
+                                  },
+                                  {
+                                    "index": 1,
+                                    "status": 400,
+                                    "message": "Not correct solution",
+                                    "solution": null
+                                  },
+                                  {
+                                    "index": 2,
+                                    "status": 409,
+                                    "message": "Solution already submitted",
+                                    "solution": null
+                                  }
+                                ]
+                                """
+                )
+            }
+        ))
+    @APIResponse(responseCode = "400", description = "Bad Request",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Empty batch",
+                        summary = "Empty batch",
+                        value = "{ \"message\": \"Batch can not be empty\" }"),
+                @ExampleObject(name = "Batch too large",
+                        summary = "Batch too large",
+                        value = "{ \"message\": \"Batch can contain at most 1000 solutions\" }"),
+                @ExampleObject(
+                        name = "Invalid solver",
+                        summary = "Invalid solver",
+                        value = "{ \"message\": \"Solver can not be null\" }"
+                )
+            }
+        ))
+    @RequestBody(
+        content = @Content(
+                mediaType = MediaType.APPLICATION_JSON,
+                schema = @Schema(implementation = SolutionAddDTO[].class),
+                examples = @ExampleObject(
+                        name = "Valid Request Body",
+                        summary = "Valid Request Body",
+                        value = """
+                                [
+                                    {
+                                        "solver": "player7",
+                                        "problemId": 1234,
+                                        "steps": [
+                                            {"x": 1, "y": 0, "stepIndex": 1},
+                                            {"x": 2, "y": 2, "stepIndex": 2}
+                                        ]
+                                    }
+                                ]
+                                """)
+        ))
+    public Uni<List<SolutionBatchResultDTO>> createSolutions(
+            @Valid
+            @NotEmpty(message = "Batch can not be empty")
+            @Size(max = 1000, message = "Batch can contain at most 1000 solutions")
+            List<SolutionAddDTO> solutionAddDTOS
+    ) {
+        return endpointExecutor.run("solutions-batch", () -> solutionService.createSolutions(solutionAddDTOS));
+    }
+
+    @POST
+    @Path("/async")
+    @ResponseStatus(202)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "202", description = "ACCEPTED",
+        content = @Content(
+            schema = @Schema(implementation = SolutionTicketDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Queued Solution",
+                        summary = "Verified solution waiting to be persisted",
+                        value = """
+                                {
+                                  "ticket": "4b4c7c1e-8f0e-4d4a-9a59-2c1b0b7b5d11",
+                                  "status": "QUEUED",
+                                  "message": null
+                                }
+                                """
+                )
+            }
+        ))
+    @APIResponse(responseCode = "400", description = "Bad Request",
+        content = @Content(
+            schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Wrong solution",
+                        summary = "Wrong solution",
+                        value = "{ \"message\": \"Not correct solution\" }"),
+                @ExampleObject(name = "Invalid step index",
+                        summary = "Invalid step index",
+                        value = "{ \"message\": \"Invalid step index 17\" }")
+            }
+        ))
+    @APIResponse(responseCode = "404", description = "Not Found",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Problem not found",
+                        summary = "Problem not found",
+                        value = "{ \"message\": \"Problem with id 1234 not found\" }"),
+                @ExampleObject(name = "Player not found",
+                        summary = "Player not found",
+                        value = "{ \"message\": \"Player player7 not found\" }")
+            }
+        ))
+    @APIResponse(responseCode = "503", description = "Service Unavailable",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Queue full",
+                        summary = "Queue full",
+                        value = "{ \"message\": \"Solution queue is full, try again later\" }")
+            }
+        ))
+    public Uni<SolutionTicketDTO> submitSolution(@Valid SolutionAddDTO solutionAddDTO) {
+        return solutionService.submitSolutionReactive(solutionAddDTO);
+    }
+
+    @GET
+    @Path("/async/{ticket}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "OK",
+        content = @Content(
+            schema = @Schema(implementation = SolutionTicketDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Persisted Solution",
+                        summary = "Persisted Solution",
+                        value = """
+                                {
+                                  "ticket": "4b4c7c1e-8f0e-4d4a-9a59-2c1b0b7b5d11",
+                                  "status": "PERSISTED",
+                                  "message": null
+                                }
+                                """
+                ),
+                @ExampleObject(
+                        name = "Duplicate Solution",
+                        summary = "Duplicate Solution (when duplicates are rejected)",
+                        value = """
+                                {
+                                  "ticket": "4b4c7c1e-8f0e-4d4a-9a59-2c1b0b7b5d11",
+                                  "status": "FAILED",
+                                  "message": "Solution already submitted"
+                                }
+                                """
+                )
+            }
+        ))
+    @APIResponse(responseCode = "404", description = "Not Found",
+        content = @Content(schema = @Schema(implementation = ErrorResponse.class),
+            examples = {
+                @ExampleObject(name = "Ticket not found",
+                        summary = "Ticket not found",
+                        value = "{ \"message\": \"Ticket 4b4c7c1e-8f0e-4d4a-9a59-2c1b0b7b5d11 not found\" }")
+            }
+        ))
+    public Uni<SolutionTicketDTO> getSubmissionStatus(@PathParam("ticket") String ticket) {
+        return solutionService.getSubmissionStatusReactive(ticket);
+    }
+
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    @APIResponse(responseCode = "200", description = "Every solution, one per line, streamed from a database cursor",
+        content = @Content(
+            mediaType = NDJSON,
+            schema = @Schema(implementation = SolutionExportDTO.class),
+            examples = {
+                @ExampleObject(
+                        name = "Valid Response",
+                        summary = "Valid Response",
+                        value = """
+                                {"id":7,"problemId":12,"solver":"player1","problem":"101110111","steps":[{"x":1,"y":1,"stepIndex":1}]}
+                                """
+                )
+            }
+        ))
+    public Response exportSolutions(@QueryParam("gzip") @DefaultValue("false") boolean gzip) {
+        StreamingOutput body = output -> solutionService.exportSolutions(output, gzip);
+        return gzip
+                ? Response.ok(body).header(HttpHeaders.CONTENT_ENCODING, "gzip").build()
+                : Response.ok(body).build();
     }
 }
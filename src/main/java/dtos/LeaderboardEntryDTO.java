@@ -0,0 +1,4 @@
+package dtos;
+
+public record LeaderboardEntryDTO(int rank, String username, long score) {
+}
@@ -0,0 +1,6 @@
+package dtos;
+
+import java.util.List;
+
+public record OptimalSolutionGetDTO(Integer moves, Boolean optimal, List<SolutionStepGetDTO> steps) {
+}
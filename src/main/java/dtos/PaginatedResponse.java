@@ -4,15 +4,17 @@ import java.util.List;
 
 public record PaginatedResponse<T>(
         List<T> content,
-        long totalElements,
-        int totalPages,
-        int currentPage,
+        Long totalElements,
+        Integer totalPages,
+        Integer currentPage,
         int size,
-        boolean hasNext
+        boolean hasNext,
+        String nextCursor
 ) {
-    public static <T> PaginatedResponse<T> createPaginatedResponse(List<T> content, int page, int size, long totalElements) {
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        boolean hasNext = page < totalPages - 1;
-        return new PaginatedResponse<>(content, totalElements, totalPages, page, size, hasNext);
+    public static <T> PaginatedResponse<T> createPaginatedResponse(List<T> content, Integer page, int size,
+                                                                   Long totalElements, boolean hasNext,
+                                                                   String nextCursor) {
+        Integer totalPages = totalElements == null ? null : (int) Math.ceil((double) totalElements / size);
+        return new PaginatedResponse<>(content, totalElements, totalPages, page, size, hasNext, hasNext ? nextCursor : null);
     }
 }
@@ -0,0 +1,4 @@
+package dtos;
+
+public record ProblemExportDTO(Long id, String description, String creator, Integer optimalMoves) {
+}
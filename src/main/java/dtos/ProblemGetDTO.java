@@ -1,4 +1,4 @@
 package dtos;
 
-public record ProblemGetDTO(String description, String creator) {
+public record ProblemGetDTO(String description, String creator, Integer optimalMoves) {
 }
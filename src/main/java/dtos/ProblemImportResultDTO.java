@@ -0,0 +1,4 @@
+package dtos;
+
+public record ProblemImportResultDTO(Long line, Integer status, String message, Long id) {
+}
@@ -0,0 +1,5 @@
+package dtos;
+
+public record ProblemProjection(Long id, Integer boardSize, byte[] board, Long creatorId, String creator,
+                                Integer optimalMoves) {
+}
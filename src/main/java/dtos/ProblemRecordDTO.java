@@ -0,0 +1,4 @@
+package dtos;
+
+public record ProblemRecordDTO(Long problemId, int steps, String holder) {
+}
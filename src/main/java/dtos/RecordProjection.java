@@ -0,0 +1,4 @@
+package dtos;
+
+public record RecordProjection(Long problemId, Integer steps, Long holderId, String holder) {
+}
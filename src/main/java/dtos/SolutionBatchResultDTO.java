@@ -0,0 +1,4 @@
+package dtos;
+
+public record SolutionBatchResultDTO(Integer index, Integer status, String message, SolutionGetDTO solution) {
+}
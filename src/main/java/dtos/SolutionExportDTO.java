@@ -0,0 +1,7 @@
+package dtos;
+
+import java.util.List;
+
+public record SolutionExportDTO(Long id, Long problemId, String solver, String problem, List<SolutionStepGetDTO> steps,
+                                Double efficiency) {
+}
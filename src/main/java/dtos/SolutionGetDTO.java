@@ -2,5 +2,5 @@ package dtos;
 
 import java.util.List;
 
-public record SolutionGetDTO(String solver, String problem, List<SolutionStepGetDTO> steps) {
+public record SolutionGetDTO(String solver, String problem, List<SolutionStepGetDTO> steps, Double efficiency) {
 }
@@ -0,0 +1,5 @@
+package dtos;
+
+public record SolutionProjection(Long id, Long problemId, String solver, Integer boardSize, byte[] board, int[] moves,
+                                 Double efficiency) {
+}
@@ -10,8 +10,7 @@ public record SolutionStepAddDTO(
         @NotNull(message = "Step index, x and y can not be empty")
         Integer stepIndex
 ) {
-    public Integer move(int lengthOfProblem) {
-        int n = (int) Math.sqrt(lengthOfProblem);
+    public Integer move(int n) {
         return (n - 1 - y) * n + x;
     }
 }
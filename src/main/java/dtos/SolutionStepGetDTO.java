@@ -1,19 +1,21 @@
 package dtos;
 
-import models.Problem;
-import models.Solution;
-import models.SolutionStep;
+import java.util.ArrayList;
+import java.util.List;
 
 public record SolutionStepGetDTO(Integer x, Integer y, Integer stepIndex) {
 
-    public static SolutionStepGetDTO convertToDTO(SolutionStep solutionStep) {
-        Solution solution = solutionStep.getSolution();
-        Problem problem = solution.getProblem();
-        int length = problem.getDescription().length();
-        int n = (int) Math.sqrt(length);
-        int x = solutionStep.getMove() % n;
-        int y = (n - 1) - solutionStep.getMove() / n;
-        return new SolutionStepGetDTO(x, y, solutionStep.getStepIndex());
+    public static List<SolutionStepGetDTO> convertToDTO(int[] moves, int n) {
+        List<SolutionStepGetDTO> steps = new ArrayList<>(moves.length);
+        for (int i = 0; i < moves.length; i++)
+            steps.add(fromMove(moves[i], n, i + 1));
+        return steps;
+    }
+
+    public static SolutionStepGetDTO fromMove(int move, int n, int stepIndex) {
+        int x = move % n;
+        int y = (n - 1) - move / n;
+        return new SolutionStepGetDTO(x, y, stepIndex);
     }
 
 }
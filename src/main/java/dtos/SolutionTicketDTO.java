@@ -0,0 +1,4 @@
+package dtos;
+
+public record SolutionTicketDTO(String ticket, String status, String message) {
+}
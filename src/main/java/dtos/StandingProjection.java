@@ -0,0 +1,4 @@
+package dtos;
+
+public record StandingProjection(Long playerId, String username, Long solved, Long records) {
+}
@@ -2,6 +2,7 @@ package exceptions;
 
 import exceptions.conflict.ConflictException;
 import exceptions.not_solvable.NotSolvableException;
+import exceptions.queue_full.QueueFullException;
 import exceptions.resource_not_found.ResourceNotFoundException;
 import exceptions.wrong_solution.WrongSolutionException;
 import jakarta.ws.rs.BadRequestException;
@@ -30,6 +31,9 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                     exception instanceof WrongSolutionException) {
             status = Response.Status.BAD_REQUEST;
             message = exception.getMessage();
+        } else if (exception instanceof QueueFullException) {
+            status = Response.Status.SERVICE_UNAVAILABLE;
+            message = exception.getMessage();
         }
 
         ErrorResponse errorResponse = new ErrorResponse(message);
@@ -0,0 +1,10 @@
+package exceptions.queue_full;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+public class QueueFullException extends WebApplicationException {
+    public QueueFullException(String message) {
+        super(message, Response.Status.SERVICE_UNAVAILABLE);
+    }
+}
@@ -5,17 +5,24 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import models.Player;
 import models.Problem;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import repositories.PlayerRepository;
 import repositories.ProblemRepository;
+import utils.BitMatrix;
+import utils.Board;
+import utils.LightsOutSolver;
 
 @ApplicationScoped
 public class DatabaseInitializer {
     private final PlayerRepository playerRepository;
     private final ProblemRepository problemRepository;
+    private final boolean dedupeComplements;
 
-    public DatabaseInitializer(PlayerRepository playerRepository, ProblemRepository problemRepository) {
+    public DatabaseInitializer(PlayerRepository playerRepository, ProblemRepository problemRepository,
+                               @ConfigProperty(name = "lights-out.problems.dedupe-complements", defaultValue = "false") boolean dedupeComplements) {
         this.playerRepository = playerRepository;
         this.problemRepository = problemRepository;
+        this.dedupeComplements = dedupeComplements;
     }
 
     @Startup
@@ -32,13 +39,27 @@ public class DatabaseInitializer {
         playerRepository.persist(player2);
 
         Problem problem1 = new Problem();
-        problem1.setDescription("111001011");
+        Board board1 = Board.fromDescription("111001011");
+        problem1.setBoardSize(board1.getSize());
+        problem1.setBoard(board1.toBytes());
+        problem1.setCanonicalKey(board1.canonicalKey(dedupeComplements));
+        setOptimalSolution(problem1, board1);
         problem1.setCreator(player1);
         problemRepository.persist(problem1);
 
         Problem problem2 = new Problem();
-        problem2.setDescription("000000000");
+        Board board2 = Board.fromDescription("000000000");
+        problem2.setBoardSize(board2.getSize());
+        problem2.setBoard(board2.toBytes());
+        problem2.setCanonicalKey(board2.canonicalKey(dedupeComplements));
+        setOptimalSolution(problem2, board2);
         problem2.setCreator(player2);
         problemRepository.persist(problem2);
     }
+
+    private static void setOptimalSolution(Problem problem, Board board) {
+        long[] presses = LightsOutSolver.findOptimalSolution(board);
+        problem.setOptimalSolution(BitMatrix.toBytes(presses, board.getSize() * board.getSize()));
+        problem.setOptimalMoves(BitMatrix.bitCount(presses));
+    }
 }
@@ -0,0 +1,24 @@
+package metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+@QueryCounted
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class QueryCountingInterceptor {
+    static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    @AroundInvoke
+    public Object countQueries(InvocationContext context) throws Exception {
+        String previous = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(context.getMethod().getDeclaringClass().getSimpleName() + "." + context.getMethod().getName());
+        try {
+            return context.proceed();
+        } finally {
+            CURRENT_METHOD.set(previous);
+        }
+    }
+}
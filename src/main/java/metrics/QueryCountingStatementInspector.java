@@ -0,0 +1,17 @@
+package metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+@ApplicationScoped
+@PersistenceUnitExtension
+public class QueryCountingStatementInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        String method = QueryCountingInterceptor.CURRENT_METHOD.get();
+        Metrics.counter("lights_out.db.queries", "method", method == null ? "none" : method).increment();
+        return sql;
+    }
+}
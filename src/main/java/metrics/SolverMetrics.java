@@ -0,0 +1,53 @@
+package metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class SolverMetrics {
+    /**
+     * Upper bounds of the board-size ranges used as the {@code size} tag, so each metric has a fixed handful of
+     * percentile histograms instead of one per board size. Boards go up to 1024x1024.
+     */
+    private static final int[] SIZE_BUCKETS = {16, 32, 128, 1024};
+
+    private static final Map<Integer, Timer> SOLVABILITY_TIMERS = new ConcurrentHashMap<>();
+    private static final Map<Integer, Timer> VERIFICATION_TIMERS = new ConcurrentHashMap<>();
+
+    public SolverMetrics() {}
+
+    public static void recordSolvabilityCheck(int size, boolean solvable, long nanos) {
+        timer(SOLVABILITY_TIMERS, "lights_out.solver.solvability", size, solvable ? "solvable" : "not_solvable", solvable)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordSolutionCheck(int size, boolean correct, long nanos) {
+        timer(VERIFICATION_TIMERS, "lights_out.solver.verification", size, correct ? "correct" : "wrong", correct)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(Map<Integer, Timer> timers, String name, int size, String outcome, boolean success) {
+        int bucket = sizeBucket(size);
+        int key = success ? bucket : -bucket;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = Timer.builder(name)
+                    .tag("size", "<=" + bucket)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            timers.putIfAbsent(key, timer);
+        }
+        return timer;
+    }
+
+    private static int sizeBucket(int size) {
+        for (int bucket : SIZE_BUCKETS)
+            if (size <= bucket)
+                return bucket;
+        return SIZE_BUCKETS[SIZE_BUCKETS.length - 1];
+    }
+}
@@ -0,0 +1,44 @@
+package models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "player_standing")
+public class PlayerStanding {
+    @Id
+    @Column(name = "player_id")
+    private Long playerId;
+
+    @Column(nullable = false)
+    private Long solved;
+
+    @Column(nullable = false)
+    private Long records;
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public Long getSolved() {
+        return solved;
+    }
+
+    public Long getRecords() {
+        return records;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public void setSolved(Long solved) {
+        this.solved = solved;
+    }
+
+    public void setRecords(Long records) {
+        this.records = records;
+    }
+}
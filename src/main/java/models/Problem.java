@@ -3,47 +3,101 @@ package models;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "problem_board_size_idx", columnList = "board_size, id"),
+        @Index(name = "problem_creator_board_size_idx", columnList = "creator_id, board_size, id"),
+        @Index(name = "problem_optimal_moves_idx", columnList = "optimal_moves, id"),
+        @Index(name = "problem_creator_optimal_moves_idx", columnList = "creator_id, optimal_moves, id")
+})
 public class Problem {
+    public static final String SEQUENCE = "problem_seq";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE)
     private Long id;
 
-    @Column(nullable = false, length = 64)
-    private String description;
+    @Column(name = "board_size", nullable = false)
+    private Integer boardSize;
+
+    @Column(nullable = false)
+    private byte[] board;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Player creator;
 
+    @Column(name = "optimal_solution")
+    private byte[] optimalSolution;
+
+    @Column(name = "optimal_moves")
+    private Integer optimalMoves;
+
+    @Column(name = "canonical_key", nullable = false, unique = true)
+    private byte[] canonicalKey;
+
     public Long getId() {
         return id;
     }
 
-    public String getDescription() {
-        return description;
+    public Integer getBoardSize() {
+        return boardSize;
+    }
+
+    public byte[] getBoard() {
+        return board;
     }
 
     public Player getCreator() {
         return creator;
     }
 
+    public byte[] getCanonicalKey() {
+        return canonicalKey;
+    }
+
+    public byte[] getOptimalSolution() {
+        return optimalSolution;
+    }
+
+    public Integer getOptimalMoves() {
+        return optimalMoves;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
+    public void setBoardSize(Integer boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    public void setBoard(byte[] board) {
+        this.board = board;
     }
 
     public void setCreator(Player creator) {
         this.creator = creator;
     }
 
+    public void setOptimalSolution(byte[] optimalSolution) {
+        this.optimalSolution = optimalSolution;
+    }
+
+    public void setOptimalMoves(Integer optimalMoves) {
+        this.optimalMoves = optimalMoves;
+    }
+
+    public void setCanonicalKey(byte[] canonicalKey) {
+        this.canonicalKey = canonicalKey;
+    }
+
     @Override
     public String toString() {
         return "Problem{" +
                 "id=" + id +
-                ", description='" + description + '\'' +
+                ", boardSize=" + boardSize +
+                ", optimalMoves=" + optimalMoves +
                 ", creator=" + creator +
                 '}';
     }
@@ -0,0 +1,44 @@
+package models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "problem_record")
+public class ProblemRecord {
+    @Id
+    @Column(name = "problem_id")
+    private Long problemId;
+
+    @Column(name = "best_steps", nullable = false)
+    private Integer bestSteps;
+
+    @Column(name = "holder_id", nullable = false)
+    private Long holderId;
+
+    public Long getProblemId() {
+        return problemId;
+    }
+
+    public Integer getBestSteps() {
+        return bestSteps;
+    }
+
+    public Long getHolderId() {
+        return holderId;
+    }
+
+    public void setProblemId(Long problemId) {
+        this.problemId = problemId;
+    }
+
+    public void setBestSteps(Integer bestSteps) {
+        this.bestSteps = bestSteps;
+    }
+
+    public void setHolderId(Long holderId) {
+        this.holderId = holderId;
+    }
+}
@@ -1,25 +1,54 @@
 package models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
-import java.util.List;
+import java.util.Arrays;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "solution_problem_solver_press_hash_key",
+        columnNames = {"problem_id", "solver_id", "press_hash"}), indexes = {
+        @Index(name = "solution_step_count_idx", columnList = "step_count, id"),
+        @Index(name = "solution_board_size_idx", columnList = "board_size, id"),
+        @Index(name = "solution_solver_step_count_idx", columnList = "solver_id, step_count, id"),
+        @Index(name = "solution_solver_board_size_idx", columnList = "solver_id, board_size, id"),
+        @Index(name = "solution_problem_step_count_idx", columnList = "problem_id, step_count, id"),
+        @Index(name = "solution_efficiency_idx", columnList = "efficiency, id"),
+        @Index(name = "solution_solver_efficiency_idx", columnList = "solver_id, efficiency, id"),
+        @Index(name = "solution_problem_efficiency_idx", columnList = "problem_id, efficiency, id")
+})
 public class Solution {
     @Id
     @GeneratedValue
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Player solver;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Problem problem;
 
-    @OneToMany(mappedBy = "solution", cascade = CascadeType.ALL, orphanRemoval = true)
-    public List<SolutionStep> steps;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    private int[] moves;
+
+    @Column(name = "step_count", nullable = false)
+    private Integer stepCount;
+
+    @Column(name = "board_size", nullable = false)
+    private Integer boardSize;
+
+    @Column(name = "efficiency")
+    private Double efficiency;
+
+    @Column(nullable = false)
+    private byte[] presses;
+
+    @Column(name = "press_hash", nullable = false)
+    private byte[] pressHash;
 
     public Long getId() {
         return id;
@@ -33,8 +62,28 @@ public class Solution {
         return problem;
     }
 
-    public List<SolutionStep> getSteps() {
-        return steps;
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public Integer getStepCount() {
+        return stepCount;
+    }
+
+    public Integer getBoardSize() {
+        return boardSize;
+    }
+
+    public Double getEfficiency() {
+        return efficiency;
+    }
+
+    public byte[] getPresses() {
+        return presses;
+    }
+
+    public byte[] getPressHash() {
+        return pressHash;
     }
 
     public void setId(Long id) {
@@ -49,8 +98,25 @@ public class Solution {
         this.problem = problem;
     }
 
-    public void setSteps(List<SolutionStep> steps) {
-        this.steps = steps;
+    public void setMoves(int[] moves) {
+        this.moves = moves;
+        this.stepCount = moves.length;
+    }
+
+    public void setBoardSize(Integer boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    public void setEfficiency(Double efficiency) {
+        this.efficiency = efficiency;
+    }
+
+    public void setPresses(byte[] presses) {
+        this.presses = presses;
+    }
+
+    public void setPressHash(byte[] pressHash) {
+        this.pressHash = pressHash;
     }
 
     @Override
@@ -59,7 +125,10 @@ public class Solution {
                 "id=" + id +
                 ", solver=" + solver +
                 ", problem=" + problem +
-                ", steps=" + steps +
+                ", moves=" + Arrays.toString(moves) +
+                ", stepCount=" + stepCount +
+                ", boardSize=" + boardSize +
+                ", efficiency=" + efficiency +
                 '}';
     }
 }
@@ -0,0 +1,29 @@
+package repositories;
+
+import dtos.StandingProjection;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import models.PlayerStanding;
+
+import java.util.List;
+
+@ApplicationScoped
+public class PlayerStandingRepository implements PanacheRepository<PlayerStanding> {
+
+    public List<StandingProjection> findProjections() {
+        return getEntityManager()
+                .createQuery("select new dtos.StandingProjection(p.id, p.username, ps.solved, ps.records) " +
+                        "from PlayerStanding ps join Player p on p.id = ps.playerId", StandingProjection.class)
+                .getResultList();
+    }
+
+    public void upsert(Long playerId, long solved, long records) {
+        getEntityManager().createNativeQuery(
+                        "insert into player_standing (player_id, solved, records) values (?1, ?2, ?3) " +
+                                "on conflict (player_id) do update set solved = excluded.solved, records = excluded.records")
+                .setParameter(1, playerId)
+                .setParameter(2, solved)
+                .setParameter(3, records)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,29 @@
+package repositories;
+
+import dtos.RecordProjection;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import models.ProblemRecord;
+
+import java.util.List;
+
+@ApplicationScoped
+public class ProblemRecordRepository implements PanacheRepository<ProblemRecord> {
+
+    public List<RecordProjection> findProjections() {
+        return getEntityManager()
+                .createQuery("select new dtos.RecordProjection(r.problemId, r.bestSteps, p.id, p.username) " +
+                        "from ProblemRecord r join Player p on p.id = r.holderId", RecordProjection.class)
+                .getResultList();
+    }
+
+    public void upsert(Long problemId, int bestSteps, Long holderId) {
+        getEntityManager().createNativeQuery(
+                        "insert into problem_record (problem_id, best_steps, holder_id) values (?1, ?2, ?3) " +
+                                "on conflict (problem_id) do update set best_steps = excluded.best_steps, holder_id = excluded.holder_id")
+                .setParameter(1, problemId)
+                .setParameter(2, bestSteps)
+                .setParameter(3, holderId)
+                .executeUpdate();
+    }
+}
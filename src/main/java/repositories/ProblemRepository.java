@@ -1,9 +1,84 @@
 package repositories;
 
+import dtos.ProblemProjection;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import models.Problem;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ProblemRepository implements PanacheRepository<Problem> {
+    private static final String PROJECTION = "select new dtos.ProblemProjection(p.id, p.boardSize, p.board, c.id, c.username, p.optimalMoves) " +
+            "from Problem p join p.creator c";
+
+    public List<ProblemProjection> findProjections(Collection<Long> ids) {
+        return getEntityManager()
+                .createQuery(PROJECTION + " where p.id in ?1", ProblemProjection.class)
+                .setParameter(1, ids)
+                .getResultList();
+    }
+
+    public Stream<ProblemProjection> streamProjections(int fetchSize) {
+        return getEntityManager()
+                .createQuery(PROJECTION, ProblemProjection.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Inserts the problem unless one with the same canonical key exists, in a single statement.
+     * Returns {@code false} on a duplicate; otherwise the generated id is set on {@code problem}.
+     */
+    public boolean insertIfAbsent(Problem problem) {
+        return !insertAllIfAbsent(List.of(problem)).isEmpty();
+    }
+
+    /**
+     * Inserts the problems whose canonical key is not taken yet, in a single statement, so a concurrent insert
+     * of the same key is skipped rather than failing the batch. Returns the inserted problems with their
+     * generated ids set. The problems must have distinct canonical keys.
+     */
+    public List<Problem> insertAllIfAbsent(List<Problem> problems) {
+        if (problems.isEmpty()) return List.of();
+
+        // The id is the raw nextval of Problem.SEQUENCE. Hibernate's pooled-lo optimizer hands out the block
+        // starting at each value it fetches, so this only stays collision-free while the sequence increments by
+        // the @SequenceGenerator allocation size (the default 50) and persisted problems share the sequence.
+        String values = IntStream.range(0, problems.size())
+                .mapToObj(i -> "(nextval('" + Problem.SEQUENCE + "'), ?" + (4 * i + 1) + ", ?" + (4 * i + 2) +
+                        ", ?" + (4 * i + 3) + ", ?" + (4 * i + 4) + ")")
+                .collect(Collectors.joining(", "));
+        NativeQuery<Object[]> query = getSession().createNativeQuery(
+                "insert into problem (id, board_size, board, creator_id, canonical_key) values " + values +
+                        " on conflict (canonical_key) do nothing returning id, canonical_key", Object[].class);
+        Map<ByteBuffer, Problem> byKey = new HashMap<>();
+        for (int i = 0; i < problems.size(); i++) {
+            Problem problem = problems.get(i);
+            query.setParameter(4 * i + 1, problem.getBoardSize())
+                    .setParameter(4 * i + 2, problem.getBoard())
+                    .setParameter(4 * i + 3, problem.getCreator().getId())
+                    .setParameter(4 * i + 4, problem.getCanonicalKey());
+            byKey.put(ByteBuffer.wrap(problem.getCanonicalKey()), problem);
+        }
+
+        List<Problem> inserted = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            Problem problem = byKey.get(ByteBuffer.wrap((byte[]) row[1]));
+            problem.setId(((Number) row[0]).longValue());
+            inserted.add(problem);
+        }
+        return inserted;
+    }
 }
@@ -1,9 +1,152 @@
 package repositories;
 
+import dtos.RecordProjection;
+import dtos.SolutionProjection;
+import dtos.StandingProjection;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
 import models.Solution;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class SolutionRepository implements PanacheRepository<Solution> {
+    private static final String PROJECTION = "select new dtos.SolutionProjection(s.id, p.id, sv.username, s.boardSize, " +
+            "p.board, s.moves, s.efficiency) from Solution s join s.solver sv join s.problem p";
+
+    public List<SolutionProjection> findProjections(String where, String orderBy, int firstResult, int maxResults,
+                                                     Object... params) {
+        TypedQuery<SolutionProjection> query = getEntityManager().createQuery(
+                PROJECTION + " " + where + " order by " + orderBy, SolutionProjection.class);
+        for (int i = 0; i < params.length; i++)
+            query.setParameter(i + 1, params[i]);
+
+        return query
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public Stream<SolutionProjection> streamProjections(int fetchSize) {
+        return getEntityManager()
+                .createQuery(PROJECTION, SolutionProjection.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Fills in the efficiency of the problem's solutions once its optimal move count becomes known.
+     */
+    public void updateEfficiencies(Long problemId, int optimalMoves) {
+        if (optimalMoves == 0) return;
+
+        update("efficiency = stepCount * 1.0 / ?1 where problem.id = ?2 and efficiency is null", optimalMoves, problemId);
+    }
+
+    /**
+     * Returns the {@code [solverId, problemId]} pairs among the given solvers and problems that already
+     * have a solution.
+     */
+    public Set<List<Long>> findSolvedPairs(Collection<Long> solverIds, Collection<Long> problemIds) {
+        return getEntityManager()
+                .createQuery("select distinct s.solver.id, s.problem.id from Solution s " +
+                        "where s.solver.id in ?1 and s.problem.id in ?2", Object[].class)
+                .setParameter(1, solverIds)
+                .setParameter(2, problemIds)
+                .getResultStream()
+                .map(row -> List.of((Long) row[0], (Long) row[1]))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the already persisted solutions among the given keys, looked up through the unique
+     * {@code (problem, solver, press hash)} index.
+     */
+    public Map<PressKey, Solution> findByPressKeys(Collection<PressKey> keys) {
+        if (keys.isEmpty()) return Map.of();
+
+        return getEntityManager()
+                .createQuery("select s from Solution s join fetch s.solver " +
+                        "where s.problem.id in ?1 and s.solver.id in ?2 and s.pressHash in ?3", Solution.class)
+                .setParameter(1, keys.stream().map(PressKey::problemId).collect(Collectors.toSet()))
+                .setParameter(2, keys.stream().map(PressKey::solverId).collect(Collectors.toSet()))
+                .setParameter(3, keys.stream().map(key -> key.hash().array()).toList())
+                .getResultStream()
+                .filter(solution -> keys.contains(PressKey.of(solution)))
+                .collect(Collectors.toMap(PressKey::of, Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock per {@code [solverId, problemId]} pair, so that concurrent
+     * transactions looking up {@link #findByPressKeys duplicates} or {@link #findSolvedPairs first solves} for
+     * the same pair run one after another. Take them all at once, before either lookup. Locks are taken in a
+     * fixed order to rule out deadlocks; ids are truncated to ints, so unrelated pairs may share a lock.
+     */
+    public void lockSolvedPairs(Collection<List<Long>> pairs) {
+        if (pairs.isEmpty()) return;
+
+        List<int[]> locks = pairs.stream()
+                .map(pair -> new int[]{pair.get(0).intValue(), pair.get(1).intValue()})
+                .sorted(Comparator.<int[]>comparingInt(lock -> lock[0]).thenComparingInt(lock -> lock[1]))
+                .toList();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < locks.size(); i++)
+            values.append(i == 0 ? "" : ", ").append("(?").append(2 * i + 1).append(", ?").append(2 * i + 2).append(")");
+
+        NativeQuery<Long> query = getSession().createNativeQuery(
+                "select count(pg_advisory_xact_lock(v.s, v.p)::text) from (values " + values + ") v(s, p)", Long.class);
+        for (int i = 0; i < locks.size(); i++) {
+            query.setParameter(2 * i + 1, locks.get(i)[0], Integer.class);
+            query.setParameter(2 * i + 2, locks.get(i)[1], Integer.class);
+        }
+        query.getSingleResult();
+    }
+
+    public List<StandingProjection> findStandings() {
+        return getEntityManager()
+                .createQuery("select new dtos.StandingProjection(sv.id, sv.username, count(distinct s.problem.id), 0L) " +
+                        "from Solution s join s.solver sv group by sv.id, sv.username", StandingProjection.class)
+                .getResultList();
+    }
+
+    /**
+     * Every fewest-move solution, ordered by problem and then by id, so the first row per problem is the
+     * earliest one to reach the best step count.
+     */
+    public Stream<RecordProjection> streamRecords(int fetchSize) {
+        return getEntityManager()
+                .createQuery("select new dtos.RecordProjection(s.problem.id, s.stepCount, sv.id, sv.username) " +
+                        "from Solution s join s.solver sv " +
+                        "where s.stepCount = (select min(b.stepCount) from Solution b where b.problem = s.problem) " +
+                        "order by s.problem.id, s.id", RecordProjection.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    public record PressKey(Long problemId, Long solverId, ByteBuffer hash) {
+        public static PressKey of(Solution solution) {
+            return new PressKey(solution.getProblem().getId(), solution.getSolver().getId(),
+                    ByteBuffer.wrap(solution.getPressHash()));
+        }
+
+        /**
+         * The {@code [solverId, problemId]} pair to pass to {@link #lockSolvedPairs}.
+         */
+        public List<Long> pair() {
+            return List.of(solverId, problemId);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package services;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import utils.ExpiringCache;
+import utils.Transactions;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+@ApplicationScoped
+public class CountCache {
+    public static final String PLAYERS = "players";
+    public static final String PROBLEMS = "problems";
+    public static final String SOLUTIONS = "solutions";
+
+    private final ExpiringCache<String, Long> counts;
+    private final TransactionSynchronizationRegistry transactions;
+
+    public CountCache(TransactionSynchronizationRegistry transactions,
+                      @ConfigProperty(name = "lights-out.counts.max-entries", defaultValue = "10000") int maxEntries,
+                      @ConfigProperty(name = "lights-out.counts.ttl", defaultValue = "5M") Duration ttl) {
+        this.transactions = transactions;
+        this.counts = new ExpiringCache<>(maxEntries, ttl);
+    }
+
+    public static String problemsByCreator(String username) {
+        return "problems:creator:" + username;
+    }
+
+    public static String solutionsBySolver(String username) {
+        return "solutions:solver:" + username;
+    }
+
+    public static String solutionsByProblem(Long id) {
+        return "solutions:problem:" + id;
+    }
+
+    public long count(String key, LongSupplier loader) {
+        return counts.get(key, k -> loader.getAsLong());
+    }
+
+    public void increment(String... keys) {
+        increment(List.of(keys));
+    }
+
+    /**
+     * Adds one to every cached count in {@code keys} (a key may repeat). Inside a transaction the
+     * counts only move once it commits; counts that are not cached are left to be loaded on demand.
+     */
+    public void increment(Collection<String> keys) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (String key : keys)
+            deltas.merge(key, 1L, Long::sum);
+
+        Transactions.afterCommit(transactions, () -> apply(deltas));
+    }
+
+    private void apply(Map<String, Long> deltas) {
+        deltas.forEach((key, delta) -> counts.update(key, count -> count + delta));
+    }
+}
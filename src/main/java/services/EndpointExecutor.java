@@ -0,0 +1,84 @@
+package services;
+
+import exceptions.queue_full.QueueFullException;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import utils.NonBlocking;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking endpoint work either on the worker pool or on a virtual thread, chosen per endpoint with
+ * {@code lights-out.execution.<endpoint>=worker|virtual}. Virtual threads are admitted through a semaphore sized
+ * like the datasource pool, so they queue here instead of piling up on connection acquisition.
+ */
+@ApplicationScoped
+public class EndpointExecutor {
+    public static final String WORKER = "worker";
+    public static final String VIRTUAL = "virtual";
+
+    private final Config config;
+    private final String defaultMode;
+    private final Semaphore connections;
+    private final long admissionTimeoutMillis;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, String> modes = new ConcurrentHashMap<>();
+
+    public EndpointExecutor(Config config,
+                            @ConfigProperty(name = "lights-out.execution.default", defaultValue = WORKER) String defaultMode,
+                            @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20") int maxConnections,
+                            @ConfigProperty(name = "lights-out.execution.admission-timeout", defaultValue = "30S") Duration admissionTimeout) {
+        this.config = config;
+        this.defaultMode = defaultMode;
+        this.connections = new Semaphore(maxConnections, true);
+        this.admissionTimeoutMillis = admissionTimeout.toMillis();
+        Metrics.gauge("lights_out.execution.virtual.waiting", connections, Semaphore::getQueueLength);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        virtualThreads.shutdown();
+    }
+
+    public <T> Uni<T> run(String endpoint, Supplier<T> action) {
+        if (!VIRTUAL.equals(mode(endpoint)))
+            return NonBlocking.blocking(action);
+
+        return Uni.createFrom().item(() -> admitted(action))
+                .runSubscriptionOn(virtualThreads);
+    }
+
+    private String mode(String endpoint) {
+        return modes.computeIfAbsent(endpoint, name -> config
+                .getOptionalValue("lights-out.execution." + name, String.class)
+                .orElse(defaultMode));
+    }
+
+    private <T> T admitted(Supplier<T> action) {
+        try {
+            if (!connections.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS))
+                throw new QueueFullException("Too many concurrent requests, try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueueFullException("Too many concurrent requests, try again later");
+        }
+
+        try {
+            return QuarkusTransaction.requiringNew().call(action::get);
+        } finally {
+            connections.release();
+        }
+    }
+}
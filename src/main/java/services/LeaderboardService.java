@@ -0,0 +1,239 @@
+package services;
+
+import dtos.LeaderboardEntryDTO;
+import dtos.ProblemRecordDTO;
+import dtos.RecordProjection;
+import dtos.StandingProjection;
+import exceptions.resource_not_found.ResourceNotFoundException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.ws.rs.BadRequestException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import repositories.PlayerStandingRepository;
+import repositories.ProblemRecordRepository;
+import repositories.SolutionRepository;
+import utils.Ranking;
+import utils.Transactions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Leaderboards kept in memory and updated as solutions commit: distinct problems solved per player, the
+ * fewest-move solution per problem, and how many of those records each player holds. Changed rows are
+ * written to {@code player_standing} and {@code problem_record} periodically and loaded back on startup.
+ */
+@ApplicationScoped
+public class LeaderboardService {
+    private static final Logger LOG = Logger.getLogger(LeaderboardService.class);
+
+    private final SolutionRepository solutionRepository;
+    private final PlayerStandingRepository playerStandingRepository;
+    private final ProblemRecordRepository problemRecordRepository;
+    private final TransactionSynchronizationRegistry transactions;
+    private final long persistIntervalMillis;
+    private final int maxLimit;
+    private final int rebuildFetchSize;
+    private final Ranking solvers = new Ranking();
+    private final Ranking recordHolders = new Ranking();
+    private final Map<Long, Best> bests = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyProblems = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService persister;
+
+    public LeaderboardService(SolutionRepository solutionRepository, PlayerStandingRepository playerStandingRepository,
+                              ProblemRecordRepository problemRecordRepository, TransactionSynchronizationRegistry transactions,
+                              @ConfigProperty(name = "lights-out.leaderboards.persist-interval", defaultValue = "30S") Duration persistInterval,
+                              @ConfigProperty(name = "lights-out.leaderboards.max-limit", defaultValue = "100") int maxLimit,
+                              @ConfigProperty(name = "lights-out.leaderboards.rebuild-fetch-size", defaultValue = "1000") int rebuildFetchSize) {
+        this.solutionRepository = solutionRepository;
+        this.playerStandingRepository = playerStandingRepository;
+        this.problemRecordRepository = problemRecordRepository;
+        this.transactions = transactions;
+        this.persistIntervalMillis = persistInterval.toMillis();
+        this.maxLimit = maxLimit;
+        this.rebuildFetchSize = rebuildFetchSize;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            QuarkusTransaction.requiringNew().run(this::load);
+            LOG.infof("Loaded leaderboards for %d players and %d problems", solvers.size(), bests.size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the leaderboards, they will only reflect new solutions", e);
+        }
+
+        persister = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+        persister.scheduleWithFixedDelay(this::persist, persistIntervalMillis, persistIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Observed after the solution writer has drained its queue, so the final snapshot includes those solutions.
+     */
+    void onStop(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) ShutdownEvent event) throws InterruptedException {
+        if (persister == null) return;
+
+        persister.shutdown();
+        persister.awaitTermination(persistIntervalMillis, TimeUnit.MILLISECONDS);
+        persist();
+    }
+
+    /**
+     * Records solutions that are about to be persisted in the current transaction. It must run before they
+     * are flushed, so that a player's first solution of a problem can still be told apart from later ones.
+     * Callers must already hold {@link SolutionRepository#lockSolvedPairs} for every (player, problem) pair, so
+     * concurrent transactions cannot both count the same first solve. The leaderboards change only once the
+     * transaction commits.
+     */
+    public void record(List<Solve> solves) {
+        if (solves.isEmpty()) return;
+
+        Set<List<Long>> solved = new HashSet<>(solutionRepository.findSolvedPairs(
+                solves.stream().map(Solve::solverId).collect(Collectors.toSet()),
+                solves.stream().map(Solve::problemId).collect(Collectors.toSet())));
+
+        List<Solve> firstSolves = new ArrayList<>();
+        for (Solve solve : solves)
+            if (solved.add(List.of(solve.solverId(), solve.problemId())))
+                firstSolves.add(solve);
+
+        Transactions.afterCommit(transactions, () -> apply(firstSolves, solves));
+    }
+
+    public Uni<List<LeaderboardEntryDTO>> getTopSolversReactive(int limit) {
+        return Uni.createFrom().item(() -> top(solvers, limit));
+    }
+
+    public Uni<List<LeaderboardEntryDTO>> getTopRecordHoldersReactive(int limit) {
+        return Uni.createFrom().item(() -> top(recordHolders, limit));
+    }
+
+    public Uni<ProblemRecordDTO> getProblemRecordReactive(Long problemId) {
+        return Uni.createFrom().item(() -> getProblemRecord(problemId));
+    }
+
+    public ProblemRecordDTO getProblemRecord(Long problemId) {
+        Best best = bests.get(problemId);
+        if (best == null)
+            throw new ResourceNotFoundException("No solutions for problem with id " + problemId);
+
+        return new ProblemRecordDTO(problemId, best.steps(), best.holder());
+    }
+
+    private List<LeaderboardEntryDTO> top(Ranking ranking, int limit) {
+        if (limit <= 0 || limit > maxLimit)
+            throw new BadRequestException("Invalid limit: " + limit);
+
+        List<Ranking.Entry> entries = ranking.top(limit);
+        List<LeaderboardEntryDTO> top = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Ranking.Entry entry = entries.get(i);
+            top.add(new LeaderboardEntryDTO(i + 1, entry.label(), entry.score()));
+        }
+        return top;
+    }
+
+    private synchronized void apply(List<Solve> firstSolves, List<Solve> solves) {
+        for (Solve solve : firstSolves) {
+            solvers.add(solve.solverId(), solve.solver(), 1);
+            dirtyPlayers.add(solve.solverId());
+        }
+        for (Solve solve : solves)
+            improve(solve.problemId(), solve.steps(), solve.solverId(), solve.solver());
+    }
+
+    private void improve(Long problemId, int steps, Long holderId, String holder) {
+        Best current = bests.get(problemId);
+        if (current != null && current.steps() <= steps) return;
+
+        bests.put(problemId, new Best(steps, holderId, holder));
+        dirtyProblems.add(problemId);
+        if (current != null) {
+            recordHolders.add(current.holderId(), current.holder(), -1);
+            dirtyPlayers.add(current.holderId());
+        }
+        recordHolders.add(holderId, holder, 1);
+        dirtyPlayers.add(holderId);
+    }
+
+    private synchronized void load() {
+        if (playerStandingRepository.count() == 0 && problemRecordRepository.count() == 0) {
+            rebuild();
+            return;
+        }
+
+        for (StandingProjection standing : playerStandingRepository.findProjections())
+            solvers.add(standing.playerId(), standing.username(), standing.solved());
+        for (RecordProjection record : problemRecordRepository.findProjections()) {
+            bests.put(record.problemId(), new Best(record.steps(), record.holderId(), record.holder()));
+            recordHolders.add(record.holderId(), record.holder(), 1);
+        }
+    }
+
+    private void rebuild() {
+        for (StandingProjection standing : solutionRepository.findStandings()) {
+            solvers.add(standing.playerId(), standing.username(), standing.solved());
+            dirtyPlayers.add(standing.playerId());
+        }
+        try (Stream<RecordProjection> records = solutionRepository.streamRecords(rebuildFetchSize)) {
+            records.forEach(record -> improve(record.problemId(), record.steps(), record.holderId(), record.holder()));
+        }
+    }
+
+    private void persist() {
+        List<Long> players = drain(dirtyPlayers);
+        List<Long> problems = drain(dirtyProblems);
+        if (players.isEmpty() && problems.isEmpty()) return;
+
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (Long playerId : players)
+                    playerStandingRepository.upsert(playerId, solvers.score(playerId), recordHolders.score(playerId));
+                for (Long problemId : problems) {
+                    Best best = bests.get(problemId);
+                    problemRecordRepository.upsert(problemId, best.steps(), best.holderId());
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Could not persist leaderboards, retrying %d players and %d problems later",
+                    players.size(), problems.size());
+            dirtyPlayers.addAll(players);
+            dirtyProblems.addAll(problems);
+        }
+    }
+
+    private static List<Long> drain(Set<Long> dirty) {
+        List<Long> drained = new ArrayList<>();
+        for (Long id : dirty)
+            if (dirty.remove(id)) drained.add(id);
+        return drained;
+    }
+
+    public record Solve(Long solverId, String solver, Long problemId, int steps) {
+    }
+
+    private record Best(int steps, Long holderId, String holder) {
+    }
+}
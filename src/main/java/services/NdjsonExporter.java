@@ -0,0 +1,72 @@
+package services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@ApplicationScoped
+public class NdjsonExporter {
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final int fetchSize;
+    private final int timeoutSeconds;
+
+    public NdjsonExporter(ObjectMapper objectMapper,
+                          @ConfigProperty(name = "lights-out.export.fetch-size", defaultValue = "1000") int fetchSize,
+                          @ConfigProperty(name = "lights-out.export.transaction-timeout", defaultValue = "2H") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+        this.timeoutSeconds = (int) timeout.toSeconds();
+    }
+
+    /**
+     * Writes one JSON document per row while the rows are read from a server-side cursor, flushing after every
+     * fetch window, so neither the persistence context nor the response buffers grow with the table.
+     */
+    public <T> void export(IntFunction<Stream<T>> query, OutputStream output, boolean gzip) {
+        QuarkusTransaction.requiringNew().timeout(timeoutSeconds).run(() -> {
+            try (Stream<T> rows = query.apply(fetchSize)) {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER_BYTES, true);
+                    write(rows, compressed);
+                    compressed.finish();
+                } else {
+                    write(rows, output);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void write(Stream<?> rows, OutputStream output) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<?> iterator = rows.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                objectWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++written % fetchSize == 0) generator.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package services;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import models.Problem;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import repositories.ProblemRepository;
+import repositories.SolutionRepository;
+import utils.BitMatrix;
+import utils.Board;
+import utils.LightsOutSolver;
+import utils.Transactions;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches for the minimal-move solutions of new problems on a small background pool, so creating or importing
+ * a problem never waits for the exhaustive search. A problem whose search is dropped because the queue is full
+ * keeps an unknown optimum until its solution is requested.
+ */
+@ApplicationScoped
+public class OptimalSolutionSearcher {
+    private static final Logger LOG = Logger.getLogger(OptimalSolutionSearcher.class);
+
+    private final ProblemRepository problemRepository;
+    private final SolutionRepository solutionRepository;
+    private final ProblemStore problemStore;
+    private final TransactionSynchronizationRegistry transactions;
+    private final ThreadPoolExecutor executor;
+
+    public OptimalSolutionSearcher(ProblemRepository problemRepository, SolutionRepository solutionRepository,
+                                   ProblemStore problemStore, TransactionSynchronizationRegistry transactions,
+                                   @ConfigProperty(name = "lights-out.problems.optimal-search.threads", defaultValue = "2") int threads,
+                                   @ConfigProperty(name = "lights-out.problems.optimal-search.queue-capacity", defaultValue = "10000") int queueCapacity) {
+        this.problemRepository = problemRepository;
+        this.solutionRepository = solutionRepository;
+        this.problemStore = problemStore;
+        this.transactions = transactions;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "optimal-solution-search");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> LOG.warn("Optimal solution search queue is full, skipping a problem"));
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues the search for problems inserted in the current transaction, once it commits. Whether a size is
+     * within the search budget is decided on the pool too, keeping solver work off the request path.
+     */
+    public void schedule(Collection<Problem> problems) {
+        List<Search> searches = problems.stream()
+                .filter(problem -> problem.getOptimalSolution() == null)
+                .map(problem -> new Search(problem.getId(), problem.getBoardSize(), problem.getBoard()))
+                .toList();
+        if (searches.isEmpty()) return;
+
+        Transactions.afterCommit(transactions, () -> searches.forEach(search -> executor.execute(() -> run(search))));
+    }
+
+    /**
+     * Stores the optimum on a managed problem and fills in the efficiency of its solutions. Solutions that
+     * commit concurrently may still have been priced against the unknown optimum, so once this transaction
+     * commits the problem store is updated and the efficiencies are filled in a second time.
+     */
+    public void store(Problem problem, long[] presses) {
+        Long id = problem.getId();
+        int moves = BitMatrix.bitCount(presses);
+        problem.setOptimalSolution(BitMatrix.toBytes(presses, problem.getBoardSize() * problem.getBoardSize()));
+        problem.setOptimalMoves(moves);
+        solutionRepository.updateEfficiencies(id, moves);
+        Transactions.afterCommit(transactions, () -> {
+            problemStore.setOptimalMoves(id, moves);
+            executor.execute(() -> backfill(id, moves));
+        });
+    }
+
+    private void run(Search search) {
+        try {
+            if (!LightsOutSolver.supportsOptimalSearch(search.boardSize())) return;
+
+            long[] presses = LightsOutSolver.findOptimalSolution(Board.fromBytes(search.boardSize(), search.board()));
+            QuarkusTransaction.requiringNew().run(() -> {
+                Problem problem = problemRepository.findById(search.problemId());
+                if (problem != null && problem.getOptimalSolution() == null)
+                    store(problem, presses);
+            });
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Could not search the optimal solution of problem %d", search.problemId());
+        }
+    }
+
+    private void backfill(Long problemId, int moves) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> solutionRepository.updateEfficiencies(problemId, moves));
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Could not fill in the solution efficiencies of problem %d", problemId);
+        }
+    }
+
+    private record Search(Long problemId, int boardSize, byte[] board) {
+    }
+}
@@ -5,26 +5,51 @@ import dtos.PlayerAddDTO;
 import dtos.PlayerGetDTO;
 import exceptions.conflict.ConflictException;
 import exceptions.resource_not_found.ResourceNotFoundException;
-import io.quarkus.panache.common.Page;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.BadRequestException;
+import metrics.QueryCounted;
 import models.Player;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import repositories.PlayerRepository;
+import utils.Cursor;
+import utils.ExpiringCache;
+import utils.NonBlocking;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static utils.QueryArgs.checkAllArgs;
 
+@QueryCounted
 @ApplicationScoped
 public class PlayerService {
     private final PlayerRepository playerRepository;
-    public PlayerService(PlayerRepository playerRepository) {
+    private final CountCache countCache;
+    private final ExpiringCache<String, Player> players;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    public PlayerService(PlayerRepository playerRepository, CountCache countCache,
+                         @ConfigProperty(name = "lights-out.players.cache.max-entries", defaultValue = "10000") int maxEntries,
+                         @ConfigProperty(name = "lights-out.players.cache.ttl", defaultValue = "10M") Duration ttl) {
         this.playerRepository = playerRepository;
+        this.countCache = countCache;
+        this.players = new ExpiringCache<>(maxEntries, ttl);
+        this.cacheHits = Metrics.counter("lights_out.players.cache", "result", "hit");
+        this.cacheMisses = Metrics.counter("lights_out.players.cache", "result", "miss");
     }
 
-    public PaginatedResponse<PlayerGetDTO> getAllPlayers(int page, int size, String sortBy, String sortOrder) {
+    public PaginatedResponse<PlayerGetDTO> getAllPlayers(int page, int size, String sortBy, String sortOrder, String after,
+                                                         boolean includeTotal) {
         if (!List.of("username", "age").contains(sortBy))
             throw new BadRequestException("Invalid sort field: " + sortBy);
 
@@ -32,16 +57,22 @@ public class PlayerService {
 
         Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder)
                 ? Sort.Direction.Descending : Sort.Direction.Ascending;
-
-        List<PlayerGetDTO> players = playerRepository.findAll(Sort.by(sortBy, direction))
-                .page(Page.of(page, size))
-                .list()
-                .stream()
-                .map(player -> new PlayerGetDTO(player.getUsername(), player.getAge()))
-                .toList();
-
-        long totalElements = playerRepository.count();
-        return PaginatedResponse.createPaginatedResponse(players, page, size, totalElements);
+        Sort sort = Sort.by(sortBy, direction).and("id", direction);
+
+        Cursor cursor = after == null ? null : Cursor.decode(after, sortBy);
+        PanacheQuery<Player> query = cursor == null
+                ? playerRepository.findAll(sort)
+                : playerRepository.find(Cursor.keyset(sortBy, "id", sortOrder, 1), sort,
+                        "age".equals(sortBy) ? cursor.getIntValue() : cursor.getValue(), cursor.getId());
+
+        int first = after == null ? page * size : 0;
+        List<Player> players = query.range(first, first + size).list();
+        boolean hasNext = players.size() > size;
+        if (hasNext) players = players.subList(0, size);
+
+        Long totalElements = includeTotal ? countCache.count(CountCache.PLAYERS, playerRepository::count) : null;
+        return PaginatedResponse.createPaginatedResponse(toPlayerGetDTO(players), after == null ? page : null, size,
+                totalElements, hasNext, nextCursor(players, sortBy));
     }
 
     public PlayerGetDTO getPlayerByUsername(String username) {
@@ -49,30 +80,87 @@ public class PlayerService {
         return new PlayerGetDTO(player.getUsername(), player.getAge());
     }
 
+    public Uni<PlayerGetDTO> getPlayerByUsernameReactive(String username) {
+        Player cached = getCachedPlayer(username);
+        return NonBlocking.cachedOrBlocking(cached == null ? null : new PlayerGetDTO(cached.getUsername(), cached.getAge()),
+                () -> getPlayerByUsername(username));
+    }
+
     @Transactional
     public PlayerGetDTO createPlayer(PlayerAddDTO playerDTO) {
-        if (getPlayer(playerDTO.username()) != null)
+        if (findPlayer(playerDTO.username()) != null)
             throw new ConflictException("Player " + playerDTO.username() + " already exists");
 
         Player player = new Player();
         player.setUsername(playerDTO.username());
         player.setAge(playerDTO.age());
         playerRepository.persist(player);
+        players.invalidate(player.getUsername());
+        countCache.increment(CountCache.PLAYERS);
 
         return new PlayerGetDTO(player.getUsername(), player.getAge());
     }
 
     public Player getPlayer(String username) {
-        Player player = playerRepository.find("username", username).firstResult();
+        Player player = findPlayer(username);
         if (player == null)
             throw new ResourceNotFoundException("Player " + username + " not found");
 
         return player;
     }
 
+    public Map<String, Player> getPlayers(Collection<String> usernames) {
+        return playerRepository.find("username in ?1", usernames)
+                .stream()
+                .collect(Collectors.toMap(Player::getUsername, Function.identity()));
+    }
+
     public void checkIfPlayerExists(String username) {
-        if (playerRepository.count("username", username) == 0) {
-            throw new ResourceNotFoundException("Player " + username + " not found");
-        }
+        getPlayer(username);
+    }
+
+    /**
+     * Returns a copy of the cached player, or {@code null} without querying the database.
+     */
+    public Player getCachedPlayer(String username) {
+        Player cached = players.get(username);
+        if (cached == null) return null;
+
+        cacheHits.increment();
+        return copy(cached);
+    }
+
+    /**
+     * Looks the player up in the identity cache first. Cache hits return a detached copy, which is enough to
+     * reference the player from new problems and solutions without loading it again.
+     */
+    private Player findPlayer(String username) {
+        Player cached = getCachedPlayer(username);
+        if (cached != null) return cached;
+
+        cacheMisses.increment();
+        Player player = playerRepository.find("username", username).firstResult();
+        if (player != null)
+            players.put(username, copy(player));
+        return player;
+    }
+
+    private static String nextCursor(List<Player> players, String sortBy) {
+        return Cursor.encodeLast(players, sortBy,
+                player -> "age".equals(sortBy) ? player.getAge() : player.getUsername(), Player::getId);
+    }
+
+    private static Player copy(Player player) {
+        Player copy = new Player();
+        copy.setId(player.getId());
+        copy.setUsername(player.getUsername());
+        copy.setAge(player.getAge());
+        return copy;
+    }
+
+    private static List<PlayerGetDTO> toPlayerGetDTO(List<Player> players) {
+        return players.stream()
+                .map(player -> new PlayerGetDTO(player.getUsername(), player.getAge()))
+                .toList();
     }
 }
@@ -1,99 +1,370 @@
 package services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dtos.OptimalSolutionGetDTO;
 import dtos.PaginatedResponse;
 import dtos.ProblemAddDTO;
+import dtos.ProblemExportDTO;
 import dtos.ProblemGetDTO;
+import dtos.ProblemImportResultDTO;
+import dtos.ProblemProjection;
+import dtos.SolutionStepGetDTO;
 import exceptions.conflict.ConflictException;
 import exceptions.resource_not_found.ResourceNotFoundException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.BadRequestException;
-import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import metrics.QueryCounted;
 import models.Player;
 import models.Problem;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import repositories.ProblemRepository;
+import utils.BitMatrix;
+import utils.Board;
+import utils.Cursor;
 import utils.LightsOutSolver;
+import utils.NonBlocking;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static utils.QueryArgs.addRange;
 import static utils.QueryArgs.checkAllArgs;
 
+@QueryCounted
 @ApplicationScoped
 public class ProblemService {
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
     private final ProblemRepository problemRepository;
     private final PlayerService playerService;
-    public ProblemService(ProblemRepository problemRepository, PlayerService playerService) {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CountCache countCache;
+    private final ProblemStore problemStore;
+    private final NdjsonExporter ndjsonExporter;
+    private final OptimalSolutionSearcher optimalSolutionSearcher;
+    private final boolean dedupeComplements;
+    public ProblemService(ProblemRepository problemRepository, PlayerService playerService, ObjectMapper objectMapper,
+                          Validator validator, CountCache countCache, ProblemStore problemStore,
+                          NdjsonExporter ndjsonExporter, OptimalSolutionSearcher optimalSolutionSearcher,
+                          @ConfigProperty(name = "lights-out.problems.dedupe-complements", defaultValue = "false") boolean dedupeComplements) {
         this.problemRepository = problemRepository;
         this.playerService = playerService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.countCache = countCache;
+        this.problemStore = problemStore;
+        this.ndjsonExporter = ndjsonExporter;
+        this.optimalSolutionSearcher = optimalSolutionSearcher;
+        this.dedupeComplements = dedupeComplements;
     }
 
-    public PaginatedResponse<ProblemGetDTO> getAllProblems(int page, int size, String sortBy, String sortOrder) {
-        String orderBy = switch (sortBy.toLowerCase()) {
-            case "username" -> "p.creator.username " + sortOrder;
-            case "description" -> "LENGTH(p.description) " + sortOrder;
+    public PaginatedResponse<ProblemGetDTO> getAllProblems(int page, int size, String sortBy, String sortOrder, String after,
+                                                           boolean includeTotal, Integer minMoves, Integer maxMoves) {
+        String sortKey = sortBy.toLowerCase();
+        String key = switch (sortKey) {
+            case "username" -> "c.username";
+            case "description" -> "p.boardSize";
+            case "moves" -> "p.optimalMoves";
             default -> throw new BadRequestException("Invalid sort field: " + sortBy);
         };
 
         checkAllArgs(page, size, sortOrder);
 
-        List<ProblemGetDTO> problems = problemRepository
-                .find("from Problem p order by " + orderBy)
-                .page(page, size)
-                .list()
-                .stream()
-                .map(problem -> new ProblemGetDTO(problem.getDescription(), problem.getCreator().getUsername()))
-                .toList();
+        List<String> filters = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addRange("p.optimalMoves", "moves", minMoves, maxMoves, "moves".equals(sortKey), filters, params);
 
-        long totalElements = problemRepository.count();
-        return PaginatedResponse.createPaginatedResponse(problems, page, size, totalElements);
+        Long totalElements = !includeTotal ? null
+                : filters.isEmpty() ? countCache.count(CountCache.PROBLEMS, problemRepository::count)
+                : countProblems(filters, params);
+        return findProblems(filters, params, key, sortKey, page, size, sortOrder, after, totalElements);
     }
 
-    public PaginatedResponse<ProblemGetDTO> getProblemsByCreator(String username, int page, int size, String sortOrder) {
+    public PaginatedResponse<ProblemGetDTO> getProblemsByCreator(String username, int page, int size, String sortBy,
+                                                                 String sortOrder, String after, boolean includeTotal,
+                                                                 Integer minMoves, Integer maxMoves) {
+        String sortKey = sortBy.toLowerCase();
+        String key = switch (sortKey) {
+            case "description" -> "p.boardSize";
+            case "moves" -> "p.optimalMoves";
+            default -> throw new BadRequestException("Invalid sort field: " + sortBy);
+        };
+
         checkAllArgs(page, size, sortOrder);
 
-        playerService.checkIfPlayerExists(username);
+        Long creatorId = playerService.getPlayer(username).getId();
 
-        List<ProblemGetDTO> problems = problemRepository
-                .find("from Problem p where p.creator.username = ?1 order by LENGTH(p.description) " + sortOrder, username)
-                .page(page, size)
-                .list()
-                .stream()
-                .map(problem -> new ProblemGetDTO(problem.getDescription(), problem.getCreator().getUsername()))
-                .toList();
+        List<String> filters = new ArrayList<>(List.of("p.creator.id = ?1"));
+        List<Object> params = new ArrayList<>(List.of(creatorId));
+        addRange("p.optimalMoves", "moves", minMoves, maxMoves, "moves".equals(sortKey), filters, params);
 
-        long totalElements = problemRepository.count("creator.username", username);
-        return PaginatedResponse.createPaginatedResponse(problems, page, size, totalElements);
+        Long totalElements = !includeTotal ? null
+                : filters.size() == 1
+                ? countCache.count(CountCache.problemsByCreator(username),
+                        () -> problemRepository.count("creator.id", creatorId))
+                : countProblems(filters, params);
+        return findProblems(filters, params, key, sortKey, page, size, sortOrder, after, totalElements);
     }
 
     public ProblemGetDTO getProblemById(Long id) {
+        return toProblemGetDTO(problemStore.get(id));
+    }
+
+    public Uni<ProblemGetDTO> getProblemByIdReactive(Long id) {
+        ProblemProjection cached = problemStore.find(id);
+        return NonBlocking.cachedOrBlocking(cached == null ? null : toProblemGetDTO(cached), () -> getProblemById(id));
+    }
+
+    /**
+     * Returns the stored minimal-move solution, searching for it first if needed. Sizes beyond the search budget
+     * get the elimination solution instead, which is neither minimal nor stored.
+     */
+    @Transactional
+    public OptimalSolutionGetDTO getOptimalSolution(Long id) {
         Problem problem = getProblem(id);
-        return new ProblemGetDTO(problem.getDescription(), problem.getCreator().getUsername());
+
+        int n = problem.getBoardSize();
+        long[] presses;
+        boolean optimal = problem.getOptimalSolution() != null || LightsOutSolver.supportsOptimalSearch(n);
+        if (problem.getOptimalSolution() != null) {
+            presses = BitMatrix.fromBytes(problem.getOptimalSolution(), n * n);
+        } else {
+            presses = LightsOutSolver.findOptimalSolution(toBoard(problem));
+            if (optimal)
+                optimalSolutionSearcher.store(problem, presses);
+        }
+
+        List<SolutionStepGetDTO> steps = new ArrayList<>();
+        for (int move = 0; move < n * n; move++)
+            if (BitMatrix.testBit(presses, move))
+                steps.add(SolutionStepGetDTO.fromMove(move, n, steps.size() + 1));
+
+        return new OptimalSolutionGetDTO(steps.size(), optimal, steps);
     }
 
     @Transactional
     public ProblemGetDTO createProblem(ProblemAddDTO problemAddDTO) {
-        if (problemRepository.find("description", problemAddDTO.description()).firstResult() != null)
+        Board board = Board.fromDescription(problemAddDTO.description());
+
+        Player creator = playerService.getPlayer(problemAddDTO.creator());
+
+        LightsOutSolver.checkIfSolvable(board);
+
+        Problem problem = toProblem(board, board.canonicalKey(dedupeComplements), creator);
+        if (!problemRepository.insertIfAbsent(problem))
             throw new ConflictException("Problem already exists");
+        problemStore.add(problem);
+        optimalSolutionSearcher.schedule(List.of(problem));
+        countCache.increment(CountCache.PROBLEMS, CountCache.problemsByCreator(creator.getUsername()));
 
-        if (!problemAddDTO.description().matches("[01]+"))
-            throw new BadRequestException("String must contain only 0 and 1 characters");
+        return new ProblemGetDTO(problemAddDTO.description(), problemAddDTO.creator(), problem.getOptimalMoves());
+    }
 
-        Player creator = playerService.getPlayer(problemAddDTO.creator());
+    public void importProblems(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        List<String> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long firstLine = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            chunk.add(line);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                writeImportResults(importChunk(chunk, firstLine), writer);
+                firstLine += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            writeImportResults(importChunk(chunk, firstLine), writer);
+        writer.flush();
+    }
+
+    public void exportProblems(OutputStream output, boolean gzip) {
+        ndjsonExporter.export(fetchSize -> problemRepository.streamProjections(fetchSize)
+                .map(problem -> new ProblemExportDTO(
+                        problem.id(),
+                        Board.fromBytes(problem.boardSize(), problem.board()).toDescription(),
+                        problem.creator(),
+                        problem.optimalMoves())),
+                output, gzip);
+    }
+
+    private ProblemImportResultDTO[] importChunk(List<String> lines, long firstLine) {
+        ProblemImportResultDTO[] results = new ProblemImportResultDTO[lines.size()];
+        ProblemAddDTO[] problemAddDTOS = new ProblemAddDTO[lines.size()];
+        Board[] boards = new Board[lines.size()];
+        byte[][] keys = new byte[lines.size()][];
+
+        IntStream.range(0, lines.size()).parallel().forEach(i -> {
+            long line = firstLine + i;
+            try {
+                ProblemAddDTO problemAddDTO = objectMapper.readValue(lines.get(i), ProblemAddDTO.class);
+                if (problemAddDTO == null)
+                    throw new BadRequestException("Invalid JSON");
+
+                Set<ConstraintViolation<ProblemAddDTO>> violations = validator.validate(problemAddDTO);
+                if (!violations.isEmpty())
+                    throw new BadRequestException(violations.iterator().next().getMessage());
+
+                Board board = Board.fromDescription(problemAddDTO.description());
+                LightsOutSolver.checkIfSolvable(board);
 
-        LightsOutSolver.checkIfSolvable(problemAddDTO.description());
+                problemAddDTOS[i] = problemAddDTO;
+                boards[i] = board;
+                keys[i] = board.canonicalKey(dedupeComplements);
+            } catch (JsonProcessingException e) {
+                results[i] = new ProblemImportResultDTO(line, 400, "Invalid JSON", null);
+            } catch (WebApplicationException e) {
+                results[i] = new ProblemImportResultDTO(line, e.getResponse().getStatus(), e.getMessage(), null);
+            }
+        });
 
+        QuarkusTransaction.requiringNew().run(() -> {
+            Set<String> usernames = new HashSet<>();
+            for (int i = 0; i < lines.size(); i++)
+                if (results[i] == null)
+                    usernames.add(problemAddDTOS[i].creator());
+            if (usernames.isEmpty()) return;
+
+            Map<String, Player> creators = playerService.getPlayers(usernames);
+            Set<ByteBuffer> seen = new HashSet<>();
+
+            Problem[] problems = new Problem[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                if (results[i] != null) continue;
+                long line = firstLine + i;
+                Player creator = creators.get(problemAddDTOS[i].creator());
+                if (creator == null)
+                    results[i] = new ProblemImportResultDTO(line, 404, "Player " + problemAddDTOS[i].creator() + " not found", null);
+                else if (!seen.add(ByteBuffer.wrap(keys[i])))
+                    results[i] = new ProblemImportResultDTO(line, 409, "Problem already exists", null);
+                else
+                    problems[i] = toProblem(boards[i], keys[i], creator);
+            }
+
+            List<Problem> created = problemRepository.insertAllIfAbsent(
+                    Arrays.stream(problems).filter(Objects::nonNull).toList());
+            created.forEach(problemStore::add);
+            optimalSolutionSearcher.schedule(created);
+            countCache.increment(created.stream()
+                    .flatMap(problem -> Stream.of(CountCache.PROBLEMS,
+                            CountCache.problemsByCreator(problem.getCreator().getUsername())))
+                    .toList());
+            for (int i = 0; i < lines.size(); i++)
+                if (problems[i] != null)
+                    results[i] = problems[i].getId() == null
+                            ? new ProblemImportResultDTO(firstLine + i, 409, "Problem already exists", null)
+                            : new ProblemImportResultDTO(firstLine + i, 201, null, problems[i].getId());
+        });
+
+        return results;
+    }
+
+    private void writeImportResults(ProblemImportResultDTO[] results, Writer writer) throws IOException {
+        for (ProblemImportResultDTO result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static Problem toProblem(Board board, byte[] canonicalKey, Player creator) {
         Problem problem = new Problem();
-        problem.setDescription(problemAddDTO.description());
+        problem.setBoardSize(board.getSize());
+        problem.setBoard(board.toBytes());
+        problem.setCanonicalKey(canonicalKey);
         problem.setCreator(creator);
-        problemRepository.persist(problem);
-
-        return new ProblemGetDTO(problem.getDescription(), problemAddDTO.creator());
+        return problem;
     }
 
     public void checkIfProblemExists(Long id) {
-        if (problemRepository.count("id", id) == 0) {
-            throw new NotFoundException("Problem with id " + id + " not found");
+        problemStore.get(id);
+    }
+
+    public static Board toBoard(Problem problem) {
+        return Board.fromBytes(problem.getBoardSize(), problem.getBoard());
+    }
+
+    private long countProblems(List<String> filters, List<Object> params) {
+        return problemRepository.count("from Problem p where " + String.join(" and ", filters), params.toArray());
+    }
+
+    private PaginatedResponse<ProblemGetDTO> findProblems(List<String> filters, List<Object> params, String key, String sortKey,
+                                                          int page, int size, String sortOrder, String after,
+                                                          Long totalElements) {
+        Cursor cursor = after == null ? null : Cursor.decode(after, sortKey);
+
+        List<String> conditions = new ArrayList<>(filters);
+        List<Object> arguments = new ArrayList<>(params);
+        if (cursor != null) {
+            conditions.add(Cursor.keyset(key, "p.id", sortOrder, arguments.size() + 1));
+            arguments.add("username".equals(sortKey) ? cursor.getValue() : cursor.getIntValue());
+            arguments.add(cursor.getId());
         }
+
+        int first = after == null ? page * size : 0;
+        List<Problem> problems = problemRepository.find("from Problem p join fetch p.creator c"
+                        + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+                        + " order by " + key + " " + sortOrder + ", p.id " + sortOrder, arguments.toArray())
+                .range(first, first + size)
+                .list();
+        boolean hasNext = problems.size() > size;
+        if (hasNext) problems = problems.subList(0, size);
+
+        return PaginatedResponse.createPaginatedResponse(toProblemGetDTO(problems), after == null ? page : null, size,
+                totalElements, hasNext, nextCursor(problems, sortKey));
+    }
+
+    private static String nextCursor(List<Problem> problems, String sortKey) {
+        return Cursor.encodeLast(problems, sortKey,
+                problem -> switch (sortKey) {
+                    case "username" -> problem.getCreator().getUsername();
+                    case "moves" -> problem.getOptimalMoves();
+                    default -> problem.getBoardSize();
+                },
+                Problem::getId);
+    }
+
+    private static List<ProblemGetDTO> toProblemGetDTO(List<Problem> problems) {
+        return problems.stream()
+                .map(ProblemService::toProblemGetDTO)
+                .toList();
+    }
+
+    private static ProblemGetDTO toProblemGetDTO(ProblemProjection problem) {
+        return new ProblemGetDTO(Board.fromBytes(problem.boardSize(), problem.board()).toDescription(), problem.creator(),
+                problem.optimalMoves());
+    }
+
+    private static ProblemGetDTO toProblemGetDTO(Problem problem) {
+        return new ProblemGetDTO(toBoard(problem).toDescription(), problem.getCreator().getUsername(),
+                problem.getOptimalMoves());
     }
 
     public Problem getProblem(Long id) {
@@ -0,0 +1,191 @@
+package services;
+
+import dtos.ProblemProjection;
+import exceptions.resource_not_found.ResourceNotFoundException;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import models.Problem;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import repositories.ProblemRepository;
+import utils.LongIndex;
+import utils.Transactions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Read-through store of every problem's packed board, kept off-heap in direct buffers. Each record is
+ * {@code [int boardSize][long creatorId][int optimalMoves][board bytes]}, with {@code -1} for an optimum that is
+ * not known; creator usernames are interned in a small map.
+ */
+@ApplicationScoped
+public class ProblemStore {
+    private static final Logger LOG = Logger.getLogger(ProblemStore.class);
+
+    private static final int OPTIMAL_MOVES_OFFSET = Integer.BYTES + Long.BYTES;
+    private static final int HEADER_BYTES = OPTIMAL_MOVES_OFFSET + Integer.BYTES;
+    private static final long MISSING = -1;
+    private static final int UNKNOWN_MOVES = -1;
+
+    private final ProblemRepository problemRepository;
+    private final TransactionSynchronizationRegistry transactions;
+    private final int chunkBytes;
+    private final int warmupFetchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final LongIndex locations = new LongIndex(1024);
+    private final Map<Long, String> creators = new ConcurrentHashMap<>();
+    private int used;
+
+    public ProblemStore(ProblemRepository problemRepository, TransactionSynchronizationRegistry transactions,
+                        @ConfigProperty(name = "lights-out.problems.store.chunk-bytes", defaultValue = "16777216") int chunkBytes,
+                        @ConfigProperty(name = "lights-out.problems.store.warmup-fetch-size", defaultValue = "1000") int warmupFetchSize) {
+        this.problemRepository = problemRepository;
+        this.transactions = transactions;
+        this.chunkBytes = chunkBytes;
+        this.warmupFetchSize = warmupFetchSize;
+        Metrics.gauge("lights_out.problems.store.problems", this, ProblemStore::size);
+        Metrics.gauge("lights_out.problems.store.bytes", this, ProblemStore::allocatedBytes);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (Stream<ProblemProjection> problems = problemRepository.streamProjections(warmupFetchSize)) {
+                    problems.forEach(this::put);
+                }
+            });
+            LOG.infof("Loaded %d problems into the problem store", size());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not warm up the problem store, problems will be loaded on first use", e);
+        }
+    }
+
+    public ProblemProjection get(Long id) {
+        ProblemProjection problem = find(id);
+        if (problem != null) return problem;
+
+        List<ProblemProjection> loaded = problemRepository.findProjections(List.of(id));
+        if (loaded.isEmpty())
+            throw new ResourceNotFoundException("Problem with id " + id + " not found");
+
+        put(loaded.get(0));
+        return loaded.get(0);
+    }
+
+    public Map<Long, ProblemProjection> getAll(Collection<Long> ids) {
+        Map<Long, ProblemProjection> problems = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ProblemProjection problem = find(id);
+            if (problem == null) missing.add(id);
+            else problems.put(id, problem);
+        }
+
+        if (!missing.isEmpty()) {
+            for (ProblemProjection problem : problemRepository.findProjections(missing)) {
+                put(problem);
+                problems.put(problem.id(), problem);
+            }
+        }
+        return problems;
+    }
+
+    public void add(Problem problem) {
+        ProblemProjection projection = new ProblemProjection(problem.getId(), problem.getBoardSize(), problem.getBoard(),
+                problem.getCreator().getId(), problem.getCreator().getUsername(), problem.getOptimalMoves());
+        Transactions.afterCommit(transactions, () -> put(projection));
+    }
+
+    /**
+     * Records an optimum found after the problem was stored. Callers apply it only once the optimum is committed.
+     */
+    public void setOptimalMoves(Long id, int optimalMoves) {
+        lock.writeLock().lock();
+        try {
+            long location = locations.get(id, MISSING);
+            if (location != MISSING)
+                chunks.get((int) (location >>> 32)).putInt((int) location + OPTIMAL_MOVES_OFFSET, optimalMoves);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return locations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long allocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return chunks.stream().mapToLong(ByteBuffer::capacity).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the problem only if it is already in the store, never touching the database.
+     */
+    public ProblemProjection find(Long id) {
+        lock.readLock().lock();
+        try {
+            long location = locations.get(id, MISSING);
+            if (location == MISSING) return null;
+
+            ByteBuffer chunk = chunks.get((int) (location >>> 32));
+            int offset = (int) location;
+            int boardSize = chunk.getInt(offset);
+            long creatorId = chunk.getLong(offset + Integer.BYTES);
+            int optimalMoves = chunk.getInt(offset + OPTIMAL_MOVES_OFFSET);
+            byte[] board = new byte[(boardSize * boardSize + 7) >>> 3];
+            chunk.get(offset + HEADER_BYTES, board);
+            return new ProblemProjection(id, boardSize, board, creatorId, creators.get(creatorId),
+                    optimalMoves == UNKNOWN_MOVES ? null : optimalMoves);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(ProblemProjection problem) {
+        int length = HEADER_BYTES + problem.board().length;
+        lock.writeLock().lock();
+        try {
+            if (locations.get(problem.id(), MISSING) != MISSING) return;
+
+            if (chunks.isEmpty() || used + length > chunks.get(chunks.size() - 1).capacity()) {
+                chunks.add(ByteBuffer.allocateDirect(Math.max(chunkBytes, length)));
+                used = 0;
+            }
+
+            ByteBuffer chunk = chunks.get(chunks.size() - 1);
+            chunk.putInt(used, problem.boardSize());
+            chunk.putLong(used + Integer.BYTES, problem.creatorId());
+            chunk.putInt(used + OPTIMAL_MOVES_OFFSET, problem.optimalMoves() == null ? UNKNOWN_MOVES : problem.optimalMoves());
+            chunk.put(used + HEADER_BYTES, problem.board());
+            creators.put(problem.creatorId(), problem.creator());
+            locations.put(problem.id(), ((long) (chunks.size() - 1) << 32) | used);
+            used += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
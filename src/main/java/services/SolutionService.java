@@ -1,147 +1,439 @@
 package services;
 
 import dtos.*;
+import exceptions.conflict.ConflictException;
+import exceptions.resource_not_found.ResourceNotFoundException;
 import exceptions.wrong_solution.WrongSolutionException;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.WebApplicationException;
+import metrics.QueryCounted;
 import models.Player;
 import models.Problem;
 import models.Solution;
-import models.SolutionStep;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import repositories.SolutionRepository;
+import repositories.SolutionRepository.PressKey;
+import utils.Board;
+import utils.Cursor;
 import utils.LightsOutSolver;
+import utils.NonBlocking;
+import utils.PressSet;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static utils.QueryArgs.addRange;
 import static utils.QueryArgs.checkAllArgs;
 
+@QueryCounted
 @ApplicationScoped
 public class SolutionService {
-    private final ProblemService problemService;
+    static final String DUPLICATE_SOLUTION = "Solution already submitted";
+
+    private final ProblemStore problemStore;
     private final SolutionRepository solutionRepository;
     private final PlayerService playerService;
-
-    public SolutionService(ProblemService problemService, SolutionRepository solutionRepository,
-                           PlayerService playerService) {
-        this.problemService = problemService;
+    private final SolutionWriter solutionWriter;
+    private final CountCache countCache;
+    private final NdjsonExporter ndjsonExporter;
+    private final LeaderboardService leaderboardService;
+    private final boolean rejectDuplicates;
+
+    public SolutionService(ProblemStore problemStore, SolutionRepository solutionRepository,
+                           PlayerService playerService, SolutionWriter solutionWriter, CountCache countCache,
+                           NdjsonExporter ndjsonExporter, LeaderboardService leaderboardService,
+                           @ConfigProperty(name = "lights-out.solutions.reject-duplicates", defaultValue = "false") boolean rejectDuplicates) {
+        this.problemStore = problemStore;
         this.solutionRepository = solutionRepository;
         this.playerService = playerService;
+        this.solutionWriter = solutionWriter;
+        this.countCache = countCache;
+        this.ndjsonExporter = ndjsonExporter;
+        this.leaderboardService = leaderboardService;
+        this.rejectDuplicates = rejectDuplicates;
     }
 
-    public PaginatedResponse<SolutionGetDTO> getAllSolutions(int page, int size, String sortBy, String sortOrder) {
-        String orderBy = switch (sortBy.toLowerCase()) {
-            case "solver" -> "s.solver.username " + sortOrder;
-            case "steps" -> "size(s.steps) " + sortOrder;
-            case "problem" -> "length(s.problem.description) " + sortOrder;
+    public PaginatedResponse<SolutionGetDTO> getAllSolutions(int page, int size, String sortBy, String sortOrder,
+                                                             String after, boolean includeTotal,
+                                                             Double minEfficiency, Double maxEfficiency) {
+        String sortKey = sortBy.toLowerCase();
+        String key = switch (sortKey) {
+            case "solver" -> "sv.username";
+            case "steps" -> "s.stepCount";
+            case "problem" -> "s.boardSize";
+            case "efficiency" -> "s.efficiency";
             default ->
                     throw new BadRequestException("Invalid sort field: " + sortBy);
         };
 
         checkAllArgs(page, size, sortOrder);
 
-        List<Solution> solutions = solutionRepository
-                .find("SELECT s FROM Solution s ORDER BY " + orderBy)
-                .page(page, size)
-                .list();
+        List<String> filters = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addRange("s.efficiency", "efficiency", minEfficiency, maxEfficiency, "efficiency".equals(sortKey), filters, params);
 
-        long totalElements = solutionRepository.count();
-        return PaginatedResponse.createPaginatedResponse(toSolutionGetDTO(solutions), page, size, totalElements);
+        Long totalElements = !includeTotal ? null
+                : filters.isEmpty() ? countCache.count(CountCache.SOLUTIONS, solutionRepository::count)
+                : countSolutions(filters, params);
+        return findSolutions(filters, params, key, sortKey, page, size, sortOrder, after, totalElements);
     }
 
-    public PaginatedResponse<SolutionGetDTO> getSolutionsBySolver(String username, int page, int size, String sortBy, String sortOrder) {
-        String orderBy = switch (sortBy.toLowerCase()) {
-            case "steps" -> "size(s.steps) " + sortOrder;
-            case "problem" -> "length(s.problem.description) " + sortOrder;
+    public PaginatedResponse<SolutionGetDTO> getSolutionsBySolver(String username, int page, int size, String sortBy,
+                                                                  String sortOrder, String after, boolean includeTotal,
+                                                                  Double minEfficiency, Double maxEfficiency) {
+        String sortKey = sortBy.toLowerCase();
+        String key = switch (sortKey) {
+            case "steps" -> "s.stepCount";
+            case "problem" -> "s.boardSize";
+            case "efficiency" -> "s.efficiency";
             default -> throw new BadRequestException("Invalid sort field: " + sortBy);
         };
 
         checkAllArgs(page, size, sortOrder);
 
-        playerService.checkIfPlayerExists(username);
+        Long solverId = playerService.getPlayer(username).getId();
 
-        List<Solution> solutions = solutionRepository
-                .find("SELECT s FROM Solution s WHERE s.solver.username = ?1 ORDER BY " + orderBy, username)
-                .page(page, size)
-                .list();
+        List<String> filters = new ArrayList<>(List.of("s.solver.id = ?1"));
+        List<Object> params = new ArrayList<>(List.of(solverId));
+        addRange("s.efficiency", "efficiency", minEfficiency, maxEfficiency, "efficiency".equals(sortKey), filters, params);
 
-        long totalElements = solutionRepository.count("solver.username", username);
-        return PaginatedResponse.createPaginatedResponse(toSolutionGetDTO(solutions), page, size, totalElements);
+        Long totalElements = !includeTotal ? null
+                : filters.size() == 1
+                ? countCache.count(CountCache.solutionsBySolver(username),
+                        () -> solutionRepository.count("solver.id", solverId))
+                : countSolutions(filters, params);
+        return findSolutions(filters, params, key, sortKey, page, size, sortOrder, after, totalElements);
     }
 
-    public PaginatedResponse<SolutionGetDTO> getSolutionsByProblemId(Long id, int page, int size, String sortBy, String sortOrder) {
-        String orderBy = switch (sortBy.toLowerCase()) {
-            case "steps" -> "size(s.steps) " + sortOrder;
-            case "solver" -> "s.solver.username " + sortOrder;
+    public PaginatedResponse<SolutionGetDTO> getSolutionsByProblemId(Long id, int page, int size, String sortBy,
+                                                                     String sortOrder, String after, boolean includeTotal,
+                                                                     Double minEfficiency, Double maxEfficiency) {
+        String sortKey = sortBy.toLowerCase();
+        String key = switch (sortKey) {
+            case "steps" -> "s.stepCount";
+            case "solver" -> "sv.username";
+            case "efficiency" -> "s.efficiency";
             default -> throw new BadRequestException("Invalid sort field: " + sortBy);
         };
 
         checkAllArgs(page, size, sortOrder);
 
-        problemService.checkIfProblemExists(id);
+        problemStore.get(id);
 
-        List<Solution> solutions = solutionRepository
-                .find("SELECT s FROM Solution s WHERE s.problem.id = ?1 ORDER BY " + orderBy, id)
-                .page(page, size)
-                .list();
+        List<String> filters = new ArrayList<>(List.of("s.problem.id = ?1"));
+        List<Object> params = new ArrayList<>(List.of(id));
+        addRange("s.efficiency", "efficiency", minEfficiency, maxEfficiency, "efficiency".equals(sortKey), filters, params);
 
-        long totalElements = solutionRepository.count("problem.id", id);
-        return PaginatedResponse.createPaginatedResponse(toSolutionGetDTO(solutions), page, size, totalElements);
+        Long totalElements = !includeTotal ? null
+                : filters.size() == 1
+                ? countCache.count(CountCache.solutionsByProblem(id), () -> solutionRepository.count("problem.id", id))
+                : countSolutions(filters, params);
+        return findSolutions(filters, params, key, sortKey, page, size, sortOrder, after, totalElements);
     }
 
     @Transactional
     public SolutionGetDTO createSolution(SolutionAddDTO solutionAddDTO) {
         Player solver = playerService.getPlayer(solutionAddDTO.solver());
 
-        Problem problem = problemService.getProblem(solutionAddDTO.problemId());
+        ProblemProjection problem = problemStore.get(solutionAddDTO.problemId());
+
+        Board board = Board.fromBytes(problem.boardSize(), problem.board());
+
+        checkSolutionSteps(solutionAddDTO.steps(), board.getSize());
+
+        int[] moves = toMoves(solutionAddDTO.steps(), board.getSize());
+        byte[] presses = PressSet.canonical(moves, board.getSize() * board.getSize());
+        PressKey key = new PressKey(problem.id(), solver.getId(), ByteBuffer.wrap(PressSet.hash(presses)));
+        solutionRepository.lockSolvedPairs(List.of(key.pair()));
+        Solution duplicate = solutionRepository.findByPressKeys(List.of(key)).get(key);
+        if (duplicate != null) {
+            if (rejectDuplicates)
+                throw new ConflictException(DUPLICATE_SOLUTION);
+            return toSolutionGetDTO(duplicate, board);
+        }
+
+        checkCorrectSolution(solutionAddDTO, board);
+
+        Solution solution = toSolution(solver, problem, board.getSize(), moves, presses, key);
+        leaderboardService.record(List.of(toSolve(solution)));
+        solutionRepository.persist(solution);
+        countCache.increment(solutionCountKeys(solver.getUsername(), problem.id()));
+
+        return toSolutionGetDTO(solution, board);
+    }
+
+    public SolutionTicketDTO submitSolution(SolutionAddDTO solutionAddDTO) {
+        Player solver = playerService.getPlayer(solutionAddDTO.solver());
+
+        ProblemProjection problem = problemStore.get(solutionAddDTO.problemId());
+
+        return enqueueSolution(solutionAddDTO, solver, problem, true);
+    }
+
+    public Uni<SolutionTicketDTO> submitSolutionReactive(SolutionAddDTO solutionAddDTO) {
+        Player solver = playerService.getCachedPlayer(solutionAddDTO.solver());
+        ProblemProjection problem = problemStore.find(solutionAddDTO.problemId());
+        if (solver == null || problem == null)
+            return NonBlocking.blocking(() -> submitSolution(solutionAddDTO));
+
+        return Uni.createFrom().item(() -> enqueueSolution(solutionAddDTO, solver, problem, false));
+    }
+
+    public Uni<SolutionTicketDTO> getSubmissionStatusReactive(String ticket) {
+        return Uni.createFrom().item(() -> getSubmissionStatus(ticket));
+    }
+
+    public SolutionTicketDTO getSubmissionStatus(String ticket) {
+        return solutionWriter.getTicket(ticket);
+    }
+
+    @Transactional
+    public List<SolutionBatchResultDTO> createSolutions(List<SolutionAddDTO> solutionAddDTOS) {
+        Map<String, Player> solvers = playerService.getPlayers(solutionAddDTOS.stream()
+                .map(SolutionAddDTO::solver)
+                .collect(Collectors.toSet()));
+
+        Map<Long, ProblemProjection> problems = problemStore.getAll(solutionAddDTOS.stream()
+                .map(SolutionAddDTO::problemId)
+                .collect(Collectors.toSet()));
+
+        Map<Long, Board> boards = new HashMap<>();
+        problems.forEach((id, problem) -> boards.put(id, Board.fromBytes(problem.boardSize(), problem.board())));
+
+        SolutionBatchResultDTO[] results = new SolutionBatchResultDTO[solutionAddDTOS.size()];
+        int[][] moves = new int[solutionAddDTOS.size()][];
+        byte[][] presses = new byte[solutionAddDTOS.size()][];
+        PressKey[] keys = new PressKey[solutionAddDTOS.size()];
+        IntStream.range(0, solutionAddDTOS.size()).parallel().forEach(index -> {
+            SolutionAddDTO solutionAddDTO = solutionAddDTOS.get(index);
+            try {
+                if (!solvers.containsKey(solutionAddDTO.solver()))
+                    throw new ResourceNotFoundException("Player " + solutionAddDTO.solver() + " not found");
+
+                Board board = boards.get(solutionAddDTO.problemId());
+                if (board == null)
+                    throw new ResourceNotFoundException("Problem with id " + solutionAddDTO.problemId() + " not found");
+
+                checkSolutionSteps(solutionAddDTO.steps(), board.getSize());
+
+                moves[index] = toMoves(solutionAddDTO.steps(), board.getSize());
+                presses[index] = PressSet.canonical(moves[index], board.getSize() * board.getSize());
+                keys[index] = new PressKey(solutionAddDTO.problemId(), solvers.get(solutionAddDTO.solver()).getId(),
+                        ByteBuffer.wrap(PressSet.hash(presses[index])));
+            } catch (WebApplicationException e) {
+                results[index] = new SolutionBatchResultDTO(index, e.getResponse().getStatus(), e.getMessage(), null);
+            }
+        });
+
+        Set<PressKey> candidates = Arrays.stream(keys).filter(Objects::nonNull).collect(Collectors.toSet());
+        solutionRepository.lockSolvedPairs(candidates.stream().map(PressKey::pair).collect(Collectors.toSet()));
+        Map<PressKey, Solution> existing = solutionRepository.findByPressKeys(candidates);
+        Map<PressKey, Integer> firsts = new HashMap<>();
+        Map<Integer, Integer> repeats = new HashMap<>();
+        for (int index = 0; index < keys.length; index++) {
+            if (results[index] != null) continue;
+            Solution duplicate = existing.get(keys[index]);
+            if (duplicate != null) {
+                results[index] = duplicateResult(index, duplicate, boards.get(solutionAddDTOS.get(index).problemId()));
+                continue;
+            }
+            Integer first = firsts.putIfAbsent(keys[index], index);
+            if (first != null) repeats.put(index, first);
+        }
+
+        IntStream.range(0, solutionAddDTOS.size()).parallel().forEach(index -> {
+            if (results[index] != null || repeats.containsKey(index)) return;
+            SolutionAddDTO solutionAddDTO = solutionAddDTOS.get(index);
+            try {
+                checkCorrectSolution(solutionAddDTO, boards.get(solutionAddDTO.problemId()));
+            } catch (WebApplicationException e) {
+                results[index] = new SolutionBatchResultDTO(index, e.getResponse().getStatus(), e.getMessage(), null);
+            }
+        });
+
+        List<Solution> solutions = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] != null || repeats.containsKey(index)) continue;
+            SolutionAddDTO solutionAddDTO = solutionAddDTOS.get(index);
+            Board board = boards.get(solutionAddDTO.problemId());
+            solutions.add(toSolution(solvers.get(solutionAddDTO.solver()), problems.get(solutionAddDTO.problemId()),
+                    board.getSize(), moves[index], presses[index], keys[index]));
+            indexes.add(index);
+        }
+        leaderboardService.record(solutions.stream().map(SolutionService::toSolve).toList());
+        solutionRepository.persist(solutions);
+        countCache.increment(solutions.stream()
+                .flatMap(solution -> solutionCountKeys(solution.getSolver().getUsername(),
+                        solution.getProblem().getId()).stream())
+                .toList());
+
+        for (int i = 0; i < solutions.size(); i++) {
+            Solution solution = solutions.get(i);
+            SolutionGetDTO solutionGetDTO = toSolutionGetDTO(solution, boards.get(solution.getProblem().getId()));
+            results[indexes.get(i)] = new SolutionBatchResultDTO(indexes.get(i), 201, null, solutionGetDTO);
+        }
+
+        Map<Integer, Solution> persisted = new HashMap<>();
+        for (int i = 0; i < solutions.size(); i++)
+            persisted.put(indexes.get(i), solutions.get(i));
+        repeats.forEach((index, first) -> {
+            Solution solution = persisted.get(first);
+            results[index] = solution == null
+                    ? new SolutionBatchResultDTO(index, results[first].status(), results[first].message(), null)
+                    : duplicateResult(index, solution, boards.get(solution.getProblem().getId()));
+        });
+
+        return List.of(results);
+    }
+
+    private long countSolutions(List<String> filters, List<Object> params) {
+        return solutionRepository.count("from Solution s where " + String.join(" and ", filters), params.toArray());
+    }
+
+    private PaginatedResponse<SolutionGetDTO> findSolutions(List<String> filters, List<Object> params, String key,
+                                                            String sortKey, int page, int size, String sortOrder,
+                                                            String after, Long totalElements) {
+        Cursor cursor = after == null ? null : Cursor.decode(after, sortKey);
+
+        List<String> conditions = new ArrayList<>(filters);
+        List<Object> arguments = new ArrayList<>(params);
+        if (cursor != null) {
+            conditions.add(Cursor.keyset(key, "s.id", sortOrder, arguments.size() + 1));
+            arguments.add(switch (sortKey) {
+                case "solver" -> cursor.getValue();
+                case "efficiency" -> cursor.getDoubleValue();
+                default -> cursor.getIntValue();
+            });
+            arguments.add(cursor.getId());
+        }
+
+        List<SolutionProjection> solutions = solutionRepository.findProjections(
+                conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions),
+                key + " " + sortOrder + ", s.id " + sortOrder,
+                after == null ? page * size : 0, size + 1, arguments.toArray());
+        boolean hasNext = solutions.size() > size;
+        if (hasNext) solutions = solutions.subList(0, size);
+
+        return PaginatedResponse.createPaginatedResponse(toSolutionGetDTO(solutions), after == null ? page : null, size,
+                totalElements, hasNext, nextCursor(solutions, sortKey));
+    }
+
+    private static String nextCursor(List<SolutionProjection> solutions, String sortKey) {
+        return Cursor.encodeLast(solutions, sortKey, solution -> switch (sortKey) {
+            case "solver" -> solution.solver();
+            case "steps" -> solution.moves().length;
+            case "efficiency" -> solution.efficiency();
+            default -> solution.boardSize();
+        }, SolutionProjection::id);
+    }
+
+    /**
+     * Steps taken relative to the minimal move count, {@code 1.0} being optimal. Unknown when the optimum is
+     * unknown or zero.
+     */
+    static Double efficiency(int steps, Integer optimalMoves) {
+        return optimalMoves == null || optimalMoves == 0 ? null : (double) steps / optimalMoves;
+    }
+
+    static List<String> solutionCountKeys(String solver, Long problemId) {
+        return List.of(CountCache.SOLUTIONS, CountCache.solutionsBySolver(solver), CountCache.solutionsByProblem(problemId));
+    }
+
+    private SolutionTicketDTO enqueueSolution(SolutionAddDTO solutionAddDTO, Player solver, ProblemProjection problem,
+                                              boolean wait) {
+        Board board = Board.fromBytes(problem.boardSize(), problem.board());
 
-        checkSolutionSteps(solutionAddDTO.steps(), problem.getDescription().length());
+        checkSolutionSteps(solutionAddDTO.steps(), board.getSize());
+        checkCorrectSolution(solutionAddDTO, board);
 
-        if (!LightsOutSolver.checkIfCorrectSolution(problem.getDescription(), solutionAddDTO.steps()))
+        int[] moves = toMoves(solutionAddDTO.steps(), board.getSize());
+        return solutionWriter.enqueue(solver, problem.id(), board.getSize(), moves, wait);
+    }
+
+    private void checkCorrectSolution(SolutionAddDTO solutionAddDTO, Board board) {
+        if (!LightsOutSolver.checkIfCorrectSolution(board, solutionAddDTO.steps()))
             throw new WrongSolutionException("Not correct solution");
+    }
+
+    /**
+     * A resubmitted press set either fails with a conflict or, by default, returns the stored solution.
+     */
+    private SolutionBatchResultDTO duplicateResult(int index, Solution duplicate, Board board) {
+        return rejectDuplicates
+                ? new SolutionBatchResultDTO(index, 409, DUPLICATE_SOLUTION, null)
+                : new SolutionBatchResultDTO(index, 200, null, toSolutionGetDTO(duplicate, board));
+    }
 
+    private Solution toSolution(Player solver, ProblemProjection problem, int boardSize, int[] moves, byte[] presses,
+                                PressKey key) {
         Solution solution = new Solution();
         solution.setSolver(solver);
-        solution.setProblem(problem);
-        solution.setSteps(new ArrayList<>());
-
-        for (SolutionStepAddDTO stepDTO : solutionAddDTO.steps()) {
-            SolutionStep step = new SolutionStep();
-            step.setMove(stepDTO.move(solution.getProblem().getDescription().length()));
-            step.setStepIndex(stepDTO.stepIndex());
-            step.setSolution(solution);
-            solution.getSteps().add(step);
-        }
-        solutionRepository.persist(solution);
+        solution.setProblem(solutionRepository.getEntityManager().getReference(Problem.class, problem.id()));
+        solution.setBoardSize(boardSize);
+        solution.setMoves(moves);
+        solution.setPresses(presses);
+        solution.setPressHash(key.hash().array());
+        solution.setEfficiency(efficiency(solution.getStepCount(), problem.optimalMoves()));
+        return solution;
+    }
 
-        List<SolutionStepGetDTO> stepDTOs = solution.getSteps().stream()
-                .map(SolutionStepGetDTO::convertToDTO)
-                .toList();
+    public void exportSolutions(OutputStream output, boolean gzip) {
+        ndjsonExporter.export(fetchSize -> solutionRepository.streamProjections(fetchSize)
+                .map(solution -> new SolutionExportDTO(
+                        solution.id(),
+                        solution.problemId(),
+                        solution.solver(),
+                        Board.fromBytes(solution.boardSize(), solution.board()).toDescription(),
+                        SolutionStepGetDTO.convertToDTO(solution.moves(), solution.boardSize()),
+                        solution.efficiency())),
+                output, gzip);
+    }
+
+    private static LeaderboardService.Solve toSolve(Solution solution) {
+        return new LeaderboardService.Solve(solution.getSolver().getId(), solution.getSolver().getUsername(),
+                solution.getProblem().getId(), solution.getStepCount());
+    }
 
-        return new SolutionGetDTO(solutionAddDTO.solver(), problem.getDescription(), stepDTOs);
+    private static int[] toMoves(List<SolutionStepAddDTO> steps, int n) {
+        int[] moves = new int[steps.size()];
+        for (int i = 0; i < moves.length; i++)
+            moves[i] = steps.get(i).move(n);
+        return moves;
     }
 
-    private List<SolutionGetDTO> toSolutionGetDTO(List<Solution> solutions) {
+    private SolutionGetDTO toSolutionGetDTO(Solution solution, Board board) {
+        List<SolutionStepGetDTO> stepDTOs = SolutionStepGetDTO.convertToDTO(solution.getMoves(), board.getSize());
+        return new SolutionGetDTO(solution.getSolver().getUsername(), board.toDescription(), stepDTOs,
+                solution.getEfficiency());
+    }
+
+    private List<SolutionGetDTO> toSolutionGetDTO(List<SolutionProjection> solutions) {
+        Map<Long, String> descriptions = new HashMap<>();
         return solutions.stream()
-                .map(solution -> {
-                    List<SolutionStepGetDTO> solutionStepGetDTOS = solution.getSteps().stream()
-                            .map(SolutionStepGetDTO::convertToDTO)
-                            .toList();
-
-                    return new SolutionGetDTO(
-                            solution.getSolver().getUsername(),
-                            solution.getProblem().getDescription(),
-                            solutionStepGetDTOS
-                    );
-                })
+                .map(solution -> new SolutionGetDTO(
+                        solution.solver(),
+                        descriptions.computeIfAbsent(solution.problemId(),
+                                id -> Board.fromBytes(solution.boardSize(), solution.board()).toDescription()),
+                        SolutionStepGetDTO.convertToDTO(solution.moves(), solution.boardSize()),
+                        solution.efficiency()))
                 .toList();
     }
 
-    private void checkSolutionSteps(List<SolutionStepAddDTO> solutionStepAddDTOS, int problemLength) {
-        int n = (int) Math.sqrt(problemLength);
-
+    private void checkSolutionSteps(List<SolutionStepAddDTO> solutionStepAddDTOS, int n) {
         solutionStepAddDTOS.sort(Comparator.comparingInt(SolutionStepAddDTO::stepIndex));
 
         int expectedIndex = 1;
@@ -0,0 +1,218 @@
+package services;
+
+import dtos.ProblemProjection;
+import dtos.SolutionTicketDTO;
+import exceptions.queue_full.QueueFullException;
+import exceptions.resource_not_found.ResourceNotFoundException;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import models.Player;
+import models.Problem;
+import models.Solution;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import repositories.SolutionRepository;
+import repositories.SolutionRepository.PressKey;
+import utils.PressSet;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+public class SolutionWriter {
+    private static final Logger LOG = Logger.getLogger(SolutionWriter.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String PERSISTED = "PERSISTED";
+    public static final String FAILED = "FAILED";
+
+    private final SolutionRepository solutionRepository;
+    private final ProblemStore problemStore;
+    private final CountCache countCache;
+    private final LeaderboardService leaderboardService;
+    private final BlockingQueue<PendingSolution> queue;
+    private final Map<String, SolutionTicketDTO> tickets;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final boolean rejectDuplicates;
+    private volatile boolean running;
+    private Thread worker;
+
+    public SolutionWriter(SolutionRepository solutionRepository, ProblemStore problemStore, CountCache countCache,
+                          LeaderboardService leaderboardService,
+                          @ConfigProperty(name = "lights-out.solutions.write-behind.queue-capacity", defaultValue = "10000") int queueCapacity,
+                          @ConfigProperty(name = "lights-out.solutions.write-behind.batch-size", defaultValue = "200") int batchSize,
+                          @ConfigProperty(name = "lights-out.solutions.write-behind.offer-timeout-ms", defaultValue = "100") long offerTimeoutMillis,
+                          @ConfigProperty(name = "lights-out.solutions.write-behind.retained-tickets", defaultValue = "100000") int retainedTickets,
+                          @ConfigProperty(name = "lights-out.solutions.reject-duplicates", defaultValue = "false") boolean rejectDuplicates) {
+        this.solutionRepository = solutionRepository;
+        this.problemStore = problemStore;
+        this.countCache = countCache;
+        this.leaderboardService = leaderboardService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.rejectDuplicates = rejectDuplicates;
+        this.tickets = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SolutionTicketDTO> eldest) {
+                return size() > retainedTickets;
+            }
+        });
+        Metrics.gauge("lights_out.solutions.write_behind.queue", queue, BlockingQueue::size);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        running = true;
+        worker = new Thread(this::run, "solution-writer");
+        worker.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        running = false;
+        if (worker != null)
+            worker.join();
+    }
+
+    /**
+     * Queues the solution for the writer thread. With {@code wait} the call blocks up to the offer timeout
+     * for free capacity; without it, it fails immediately, which is what event-loop callers need.
+     */
+    public SolutionTicketDTO enqueue(Player solver, Long problemId, int boardSize, int[] moves, boolean wait) {
+        String ticket = UUID.randomUUID().toString();
+        SolutionTicketDTO queued = new SolutionTicketDTO(ticket, QUEUED, null);
+        tickets.put(ticket, queued);
+
+        try {
+            PendingSolution pending = new PendingSolution(ticket, solver.getId(), solver.getUsername(), problemId, boardSize,
+                    moves);
+            if (wait ? queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS) : queue.offer(pending))
+                return queued;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        tickets.remove(ticket);
+        throw new QueueFullException("Solution queue is full, try again later");
+    }
+
+    public SolutionTicketDTO getTicket(String ticket) {
+        SolutionTicketDTO status = tickets.get(ticket);
+        if (status == null)
+            throw new ResourceNotFoundException("Ticket " + ticket + " not found");
+
+        return status;
+    }
+
+    private void run() {
+        List<PendingSolution> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSolution first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Persists the batch in one transaction, skipping solutions whose press set the solver already submitted
+     * for the problem, either earlier or within the same batch. If that fails, each solution is retried in its
+     * own transaction so only the failing ones are marked {@code FAILED}.
+     */
+    private void flush(List<PendingSolution> batch) {
+        try {
+            Set<String> duplicates = QuarkusTransaction.requiringNew().call(() -> write(batch));
+            for (PendingSolution pending : batch)
+                tickets.put(pending.ticket(), rejectDuplicates && duplicates.contains(pending.ticket())
+                        ? new SolutionTicketDTO(pending.ticket(), FAILED, SolutionService.DUPLICATE_SOLUTION)
+                        : new SolutionTicketDTO(pending.ticket(), PERSISTED, null));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                LOG.warnf(e, "Could not persist %d queued solutions together, retrying them one at a time", batch.size());
+                for (PendingSolution pending : batch)
+                    flush(List.of(pending));
+                return;
+            }
+
+            LOG.errorf(e, "Could not persist queued solution %s", batch.get(0).ticket());
+            tickets.put(batch.get(0).ticket(),
+                    new SolutionTicketDTO(batch.get(0).ticket(), FAILED, "Could not persist solution"));
+        }
+    }
+
+    /**
+     * Persists the solutions that are not duplicates and returns the tickets of those that are.
+     */
+    private Set<String> write(List<PendingSolution> batch) {
+        List<byte[]> presses = new ArrayList<>(batch.size());
+        List<PressKey> keys = new ArrayList<>(batch.size());
+        for (PendingSolution pending : batch) {
+            byte[] pressed = PressSet.canonical(pending.moves(), pending.boardSize() * pending.boardSize());
+            presses.add(pressed);
+            keys.add(new PressKey(pending.problemId(), pending.solverId(), ByteBuffer.wrap(PressSet.hash(pressed))));
+        }
+
+        solutionRepository.lockSolvedPairs(keys.stream().map(PressKey::pair).collect(Collectors.toSet()));
+        Set<PressKey> seen = new HashSet<>(solutionRepository.findByPressKeys(keys).keySet());
+        Set<String> skipped = new HashSet<>();
+        List<Integer> fresh = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (seen.add(keys.get(i))) fresh.add(i);
+            else skipped.add(batch.get(i).ticket());
+        }
+
+        leaderboardService.record(fresh.stream()
+                .map(batch::get)
+                .map(pending -> new LeaderboardService.Solve(pending.solverId(), pending.solver(),
+                        pending.problemId(), pending.moves().length))
+                .toList());
+        Map<Long, ProblemProjection> problems = problemStore.getAll(fresh.stream()
+                .map(i -> batch.get(i).problemId())
+                .collect(Collectors.toSet()));
+        for (int i : fresh) {
+            PendingSolution pending = batch.get(i);
+            Solution solution = new Solution();
+            solution.setSolver(solutionRepository.getEntityManager().getReference(Player.class, pending.solverId()));
+            solution.setProblem(solutionRepository.getEntityManager().getReference(Problem.class, pending.problemId()));
+            solution.setBoardSize(pending.boardSize());
+            solution.setMoves(pending.moves());
+            solution.setPresses(presses.get(i));
+            solution.setPressHash(keys.get(i).hash().array());
+            ProblemProjection problem = problems.get(pending.problemId());
+            solution.setEfficiency(SolutionService.efficiency(pending.moves().length,
+                    problem == null ? null : problem.optimalMoves()));
+            solutionRepository.persist(solution);
+        }
+        countCache.increment(fresh.stream()
+                .map(batch::get)
+                .flatMap(pending -> SolutionService.solutionCountKeys(pending.solver(), pending.problemId()).stream())
+                .toList());
+        return skipped;
+    }
+
+    private record PendingSolution(String ticket, Long solverId, String solver, Long problemId, int boardSize, int[] moves) {
+    }
+}
@@ -0,0 +1,219 @@
+package utils;
+
+public class BitMatrix {
+    private final int rows;
+    private final int columns;
+    private final int words;
+    private final long[][] data;
+
+    public BitMatrix(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.words = wordsFor(columns);
+        this.data = new long[rows][words];
+    }
+
+    public static BitMatrix lightsOut(int n) {
+        int size = n * n;
+        BitMatrix matrix = new BitMatrix(size, size);
+        for (int i = 0; i < size; i++) {
+            int x = i % n;
+            int y = i / n;
+            matrix.set(i, i);
+            if (x > 0) matrix.set(i, i - 1);
+            if (x < n - 1) matrix.set(i, i + 1);
+            if (y > 0) matrix.set(i, i - n);
+            if (y < n - 1) matrix.set(i, i + n);
+        }
+        return matrix;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public void set(int row, int column) {
+        data[row][column >>> 6] |= 1L << column;
+    }
+
+    public boolean get(int row, int column) {
+        return testBit(data[row], column);
+    }
+
+    /**
+     * Solves {@code A x = rhs} over GF(2) with Gauss-Jordan elimination on a copy of the matrix.
+     * Returns the solution with all free variables set to zero, or {@code null} if the system is inconsistent.
+     */
+    public long[] solve(long[] rhs) {
+        long[][] a = copyRows();
+        long[] b = rhs.clone();
+
+        int[] pivotColumns = new int[Math.min(rows, columns)];
+        int rank = eliminate(a, b, null, pivotColumns);
+
+        for (int row = rank; row < rows; row++)
+            if (testBit(b, row)) return null;
+
+        long[] x = new long[words];
+        for (int row = 0; row < rank; row++)
+            if (testBit(b, row)) setBit(x, pivotColumns[row]);
+        return x;
+    }
+
+    public long[][] kernelBasis() {
+        long[][] a = copyRows();
+        int[] pivotColumns = new int[Math.min(rows, columns)];
+        int rank = eliminate(a, null, null, pivotColumns);
+        return kernelBasis(a, rank, pivotColumns);
+    }
+
+    /**
+     * Eliminates the matrix once and keeps the row operations, so the same system can later be solved
+     * for any right-hand side without repeating the elimination.
+     */
+    public ReducedBitMatrix reduce() {
+        long[][] a = copyRows();
+        long[][] transform = new long[rows][wordsFor(rows)];
+        for (int row = 0; row < rows; row++)
+            setBit(transform[row], row);
+
+        int[] pivotColumns = new int[Math.min(rows, columns)];
+        int rank = eliminate(a, null, transform, pivotColumns);
+        return new ReducedBitMatrix(columns, rank, pivotColumns, transform, kernelBasis(a, rank, pivotColumns));
+    }
+
+    private long[][] copyRows() {
+        long[][] a = new long[rows][];
+        for (int row = 0; row < rows; row++)
+            a[row] = data[row].clone();
+        return a;
+    }
+
+    private long[][] kernelBasis(long[][] a, int rank, int[] pivotColumns) {
+        boolean[] isPivot = new boolean[columns];
+        for (int row = 0; row < rank; row++)
+            isPivot[pivotColumns[row]] = true;
+
+        long[][] basis = new long[columns - rank][];
+        int next = 0;
+        for (int free = 0; free < columns; free++) {
+            if (isPivot[free]) continue;
+            long[] vector = new long[words];
+            setBit(vector, free);
+            for (int row = 0; row < rank; row++)
+                if (testBit(a[row], free)) setBit(vector, pivotColumns[row]);
+            basis[next++] = vector;
+        }
+        return basis;
+    }
+
+    private int eliminate(long[][] a, long[] b, long[][] transform, int[] pivotColumns) {
+        int pivotRow = 0;
+        for (int column = 0; column < columns && pivotRow < rows; column++) {
+            int word = column >>> 6;
+            long mask = 1L << column;
+
+            int pivot = pivotRow;
+            while (pivot < rows && (a[pivot][word] & mask) == 0) pivot++;
+            if (pivot == rows) continue;
+
+            long[] tempRow = a[pivotRow]; a[pivotRow] = a[pivot]; a[pivot] = tempRow;
+            boolean pivotBit = false;
+            if (b != null) {
+                pivotBit = testBit(b, pivot);
+                assignBit(b, pivot, testBit(b, pivotRow));
+                assignBit(b, pivotRow, pivotBit);
+            }
+            if (transform != null) {
+                tempRow = transform[pivotRow]; transform[pivotRow] = transform[pivot]; transform[pivot] = tempRow;
+            }
+
+            long[] source = a[pivotRow];
+            for (int row = 0; row < rows; row++) {
+                if (row == pivotRow || (a[row][word] & mask) == 0) continue;
+                long[] target = a[row];
+                for (int k = word; k < words; k++)
+                    target[k] ^= source[k];
+                if (pivotBit) flipBit(b, row);
+                if (transform != null) xor(transform[row], transform[pivotRow]);
+            }
+            pivotColumns[pivotRow++] = column;
+        }
+        return pivotRow;
+    }
+
+    public static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public static boolean testBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static void flipBit(long[] bits, int index) {
+        bits[index >>> 6] ^= 1L << index;
+    }
+
+    public static long readWord(long[] bits, int position) {
+        int word = position >>> 6;
+        int offset = position & 63;
+        long value = bits[word] >>> offset;
+        if (offset != 0 && word + 1 < bits.length)
+            value |= bits[word + 1] << (64 - offset);
+        return value;
+    }
+
+    public static void orWord(long[] bits, int position, long value) {
+        int word = position >>> 6;
+        int offset = position & 63;
+        bits[word] |= value << offset;
+        if (offset != 0 && word + 1 < bits.length)
+            bits[word + 1] |= value >>> (64 - offset);
+    }
+
+    private static void assignBit(long[] bits, int index, boolean value) {
+        if (value) bits[index >>> 6] |= 1L << index;
+        else bits[index >>> 6] &= ~(1L << index);
+    }
+
+    public static void xor(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++)
+            target[i] ^= source[i];
+    }
+
+    public static boolean evenParity(long[] left, long[] right) {
+        long parity = 0;
+        for (int i = 0; i < left.length; i++)
+            parity ^= left[i] & right[i];
+        return (Long.bitCount(parity) & 1) == 0;
+    }
+
+    public static byte[] toBytes(long[] bits, int length) {
+        byte[] bytes = new byte[(length + 7) >>> 3];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) (bits[i >>> 3] >>> ((i & 7) << 3));
+        return bytes;
+    }
+
+    public static long[] fromBytes(byte[] bytes, int length) {
+        long[] bits = new long[wordsFor(length)];
+        for (int i = 0; i < bytes.length && (i >>> 3) < bits.length; i++)
+            bits[i >>> 3] |= (bytes[i] & 0xFFL) << ((i & 7) << 3);
+        return bits;
+    }
+
+    public static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits)
+            count += Long.bitCount(word);
+        return count;
+    }
+}
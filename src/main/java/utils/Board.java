@@ -0,0 +1,142 @@
+package utils;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class Board {
+    private final int size;
+    private final long[] cells;
+
+    public Board(int size, long[] cells) {
+        this.size = size;
+        this.cells = cells;
+    }
+
+    public static Board fromDescription(String description) {
+        int length = description.length();
+        long[] cells = new long[BitMatrix.wordsFor(length)];
+        for (int i = 0; i < length; i++) {
+            char c = description.charAt(i);
+            if (c == '1') BitMatrix.setBit(cells, i);
+            else if (c != '0') throw new BadRequestException("String must contain only 0 and 1 characters");
+        }
+
+        int size = (int) Math.sqrt(length);
+        if (size * size != length)
+            throw new BadRequestException("Problem must be a square");
+
+        return new Board(size, cells);
+    }
+
+    public static Board fromBytes(int size, byte[] bytes) {
+        return new Board(size, BitMatrix.fromBytes(bytes, size * size));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return size * size;
+    }
+
+    public long[] getCells() {
+        return cells;
+    }
+
+    public boolean isOn(int cell) {
+        return BitMatrix.testBit(cells, cell);
+    }
+
+    public long[] target() {
+        int count = getCellCount();
+        long[] target = new long[cells.length];
+        for (int i = 0; i < cells.length; i++)
+            target[i] = ~cells[i];
+        if ((count & 63) != 0)
+            target[target.length - 1] &= (1L << count) - 1;
+        return target;
+    }
+
+    public byte[] toBytes() {
+        return BitMatrix.toBytes(cells, getCellCount());
+    }
+
+    public String toDescription() {
+        int count = getCellCount();
+        char[] description = new char[count];
+        for (int i = 0; i < count; i++)
+            description[i] = isOn(i) ? '1' : '0';
+        return new String(description);
+    }
+
+    /**
+     * SHA-256 of the smallest of the board's eight rotations and reflections, and with {@code complements} also
+     * of their complements, so every equivalent board maps to the same key.
+     */
+    public byte[] canonicalKey(boolean complements) {
+        long[] canonical = null;
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            long[] transformed = transform(symmetry);
+            if (canonical == null || Arrays.compareUnsigned(transformed, canonical) < 0)
+                canonical = transformed;
+            if (complements) {
+                long[] inverted = new Board(size, transformed).target();
+                if (Arrays.compareUnsigned(inverted, canonical) < 0)
+                    canonical = inverted;
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(size).array());
+            digest.update(BitMatrix.toBytes(canonical, getCellCount()));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long[] transform(int symmetry) {
+        if (symmetry == 0) return cells;
+
+        int last = size - 1;
+        long[] transformed = new long[cells.length];
+        for (int word = 0; word < cells.length; word++) {
+            long bits = cells[word];
+            while (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int row = cell / size;
+                int column = cell % size;
+                int target = switch (symmetry) {
+                    case 1 -> column * size + last - row;
+                    case 2 -> (last - row) * size + last - column;
+                    case 3 -> (last - column) * size + row;
+                    case 4 -> row * size + last - column;
+                    case 5 -> (last - row) * size + column;
+                    case 6 -> column * size + row;
+                    default -> (last - column) * size + last - row;
+                };
+                BitMatrix.setBit(transformed, target);
+            }
+        }
+        return transformed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board other)) return false;
+        return size == other.size && Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(cells);
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class Cursor {
+    private final String token;
+    private final long id;
+    private final String value;
+
+    private Cursor(String token, long id, String value) {
+        this.token = token;
+        this.id = id;
+        this.value = value;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getIntValue() {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public double getDoubleValue() {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Decodes an {@code after} token for the given sort field. An empty token starts from the first row
+     * and yields {@code null}.
+     */
+    public static Cursor decode(String token, String sortBy) {
+        if (token.isEmpty()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(sortBy))
+                throw new BadRequestException("Invalid cursor: " + token);
+            return new Cursor(token, Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public static String encode(String sortBy, Object value, Long id) {
+        String raw = sortBy + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static <T> String encodeLast(List<T> rows, String sortBy, Function<T, Object> key, Function<T, Long> id) {
+        if (rows.isEmpty()) return null;
+        T last = rows.get(rows.size() - 1);
+        return encode(sortBy, key.apply(last), id.apply(last));
+    }
+
+    /**
+     * Row-value predicate selecting everything after the cursor position in the given sort order,
+     * e.g. {@code (c.username, p.id) > (?1, ?2)}.
+     */
+    public static String keyset(String key, String idColumn, String sortOrder, int firstParameter) {
+        String comparator = "desc".equalsIgnoreCase(sortOrder) ? "<" : ">";
+        return "(" + key + ", " + idColumn + ") " + comparator + " (?" + firstParameter + ", ?" + (firstParameter + 1) + ")";
+    }
+}
@@ -0,0 +1,62 @@
+package utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small LRU map whose entries also expire a fixed time after they were loaded.
+ */
+public class ExpiringCache<K, V> {
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+
+    public ExpiringCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Returns the cached value or loads it outside the lock, so a slow loader never blocks other keys.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+
+        value = loader.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void update(K key, UnaryOperator<V> update) {
+        entries.computeIfPresent(key, (k, entry) -> new Entry<>(update.apply(entry.value()), entry.expiresAt()));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
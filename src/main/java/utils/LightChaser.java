@@ -0,0 +1,102 @@
+package utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LightChaser {
+    private static final Map<Integer, LightChaser> CACHE = new ConcurrentHashMap<>();
+
+    private final int n;
+    private final int rowWords;
+    private final long lastWordMask;
+    private final ReducedBitMatrix topRowSystem;
+
+    /**
+     * Chasing pushes every light down to the bottom row, and the bottom row left behind depends linearly on
+     * the top-row presses. That n x n system is reduced once per size, so each board only costs two chases.
+     */
+    private LightChaser(int n) {
+        this.n = n;
+        this.rowWords = BitMatrix.wordsFor(n);
+        this.lastWordMask = (n & 63) == 0 ? -1L : (1L << n) - 1;
+
+        BitMatrix system = new BitMatrix(n, n);
+        for (int column = 0; column < n; column++) {
+            long[] topRow = new long[rowWords];
+            BitMatrix.setBit(topRow, column);
+            long[] residual = chase(new long[n][rowWords], topRow, null);
+            for (int row = 0; row < n; row++)
+                if (BitMatrix.testBit(residual, row)) system.set(row, column);
+        }
+        this.topRowSystem = system.reduce();
+    }
+
+    public static LightChaser forSize(int n) {
+        return CACHE.computeIfAbsent(n, LightChaser::new);
+    }
+
+    public boolean isSolvable(long[] target) {
+        return topRowSystem.isSolvable(chase(toRows(target), new long[rowWords], null));
+    }
+
+    public long[] solve(long[] target) {
+        long[] topRow = topRowSystem.solve(chase(toRows(target), new long[rowWords], null));
+        if (topRow == null) return null;
+
+        long[] presses = new long[BitMatrix.wordsFor(n * n)];
+        chase(toRows(target), topRow, presses);
+        return presses;
+    }
+
+    public int quietPatternCount() {
+        return n - topRowSystem.getRank();
+    }
+
+    public long[][] quietPatterns() {
+        long[][] kernel = topRowSystem.getKernelBasis();
+        long[][] patterns = new long[kernel.length][];
+        for (int i = 0; i < kernel.length; i++) {
+            patterns[i] = new long[BitMatrix.wordsFor(n * n)];
+            chase(new long[n][rowWords], kernel[i], patterns[i]);
+        }
+        return patterns;
+    }
+
+    private long[] chase(long[][] rows, long[] topRow, long[] presses) {
+        long[] press = topRow.clone();
+        for (int row = 0; row < n; row++) {
+            pressRow(rows, row, press);
+            if (presses != null) writeRow(presses, row, press);
+            if (row < n - 1) press = rows[row].clone();
+        }
+        return rows[n - 1];
+    }
+
+    private void pressRow(long[][] rows, int row, long[] press) {
+        long[] current = rows[row];
+        for (int k = 0; k < rowWords; k++) {
+            long left = press[k] << 1 | (k > 0 ? press[k - 1] >>> 63 : 0);
+            long right = press[k] >>> 1 | (k < rowWords - 1 ? press[k + 1] << 63 : 0);
+            current[k] ^= press[k] ^ left ^ right;
+        }
+        current[rowWords - 1] &= lastWordMask;
+
+        if (row > 0) BitMatrix.xor(rows[row - 1], press);
+        if (row < n - 1) BitMatrix.xor(rows[row + 1], press);
+    }
+
+    private long[][] toRows(long[] target) {
+        long[][] rows = new long[n][rowWords];
+        for (int row = 0; row < n; row++) {
+            for (int k = 0; k < rowWords; k++)
+                rows[row][k] = BitMatrix.readWord(target, row * n + (k << 6));
+            rows[row][rowWords - 1] &= lastWordMask;
+        }
+        return rows;
+    }
+
+    private void writeRow(long[] bits, int row, long[] values) {
+        for (int k = 0; k < rowWords; k++)
+            BitMatrix.orWord(bits, row * n + (k << 6), values[k]);
+    }
+}
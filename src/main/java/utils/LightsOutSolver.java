@@ -2,137 +2,99 @@ package utils;
 
 import dtos.SolutionStepAddDTO;
 import exceptions.not_solvable.NotSolvableException;
-import jakarta.ws.rs.BadRequestException;
-import org.jboss.logging.Logger;
+import metrics.SolverMetrics;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class LightsOutSolver {
-    private static final Logger LOG = Logger.getLogger(LightsOutSolver.class);
+    private static final long MAX_OPTIMAL_SEARCH_WORDS = 1L << 24;
+    private static final int LIGHT_CHASING_MIN_SIZE = 32;
+    private static final ThreadLocal<long[]> PRESS_BUFFER = ThreadLocal.withInitial(() -> new long[0]);
 
     public LightsOutSolver() {}
 
-    private static void checkIfValidBoard(String board) {
-        int length = board.length();
-        int sqrt = (int) Math.sqrt(length);
-        if(sqrt * sqrt != length)
-            throw new BadRequestException("Problem must be a square");
-    }
-
-    public static void checkIfSolvable(String board) {
+    public static void checkIfSolvable(Board board) {
         long startTime = System.nanoTime();
-        checkIfValidBoard(board);
-
-        StringBuilder flippedBoard = new StringBuilder();
-        for (int i = 0; i < board.length(); i++) {
-            char c = board.charAt(i);
-            if (c == '1') {
-                flippedBoard.append('0');
-            } else if (c == '0') {
-                flippedBoard.append('1');
-            }
-        }
-        board = flippedBoard.toString();
-
-        int n = (int) Math.sqrt(board.length());
-        int size = n * n;
-        int[][] allMoves = new int[size][size];
-        int[] startingPos = new int[size];
-
-        for (int i = 0; i < size; i++) {
-            int x = i % n;
-            int y = i / n;
-            allMoves[i][i] = 1;
-            if (x > 0) allMoves[i][i - 1] = 1;
-            if (x < n - 1) allMoves[i][i + 1] = 1;
-            if (y > 0) allMoves[i][i - n] = 1;
-            if (y < n - 1) allMoves[i][i + n] = 1;
-            startingPos[i] = board.charAt(i) - '0';
-        }
 
-        try {
-            int moves = checkIfSolvableLinearEquation(allMoves, startingPos);
-            long duration = System.nanoTime() - startTime;
-            LOG.infof("Problem solvable in %d moves (time: %d ns)", moves, duration);
-        } catch (NotSolvableException e) {
-            long duration = System.nanoTime() - startTime;
-            LOG.warnf("Problem is not solvable (time: %d ns)", duration);
-            throw e;
-        }
+        int n = board.getSize();
+        long[] target = board.target();
+        boolean solvable = usesLightChasing(n)
+                ? LightChaser.forSize(n).isSolvable(target)
+                : QuietPatterns.isSolvable(target, n);
+        SolverMetrics.recordSolvabilityCheck(n, solvable, System.nanoTime() - startTime);
+        if (!solvable)
+            throw new NotSolvableException("Problem not solvable");
     }
 
-    private static int checkIfSolvableLinearEquation(int[][] a, int[] b) {
-        int size = a.length;
-        for (int column = 0; column < size; column++) {
-            int pivot = column;
-            if (a[column][column] == 0) {
-                for (int row = column + 1; row < size; row++) {
-                    if (a[row][column] > a[pivot][column]) {
-                        pivot = row;
-                        break;
-                    }
-                }
-            }
-
-            if (a[pivot][column] == 0) continue;
-
-            int[] tempRow = a[column]; a[column] = a[pivot]; a[pivot] = tempRow;
-            int tempVal = b[column]; b[column] = b[pivot]; b[pivot] = tempVal;
-
-            for (int row = column + 1; row < size; row++) {
-                if (a[row][column] == 1) {
-                    for (int k = column; k < size; k++) {
-                        a[row][k] ^= a[column][k];
-                    }
-                    b[row] ^= b[column];
-                }
+    /**
+     * Returns the minimal-move solution while {@link #supportsOptimalSearch(int)} holds, otherwise the
+     * elimination solution, which solves the board but may take more moves.
+     */
+    public static long[] findOptimalSolution(Board board) {
+        int n = board.getSize();
+        long[] target = board.target();
+        long[] current = usesLightChasing(n)
+                ? LightChaser.forSize(n).solve(target)
+                : BitMatrix.lightsOut(n).solve(target);
+        if (current == null)
+            throw new NotSolvableException("Problem not solvable");
+
+        if (!supportsOptimalSearch(n))
+            return current;
+        long[][] patterns = QuietPatterns.forSize(n);
+
+        long[] best = current.clone();
+        int bestMoves = BitMatrix.bitCount(best);
+        for (long combination = 1; combination < (1L << patterns.length); combination++) {
+            BitMatrix.xor(current, patterns[Long.numberOfTrailingZeros(combination)]);
+            int moves = BitMatrix.bitCount(current);
+            if (moves < bestMoves) {
+                bestMoves = moves;
+                System.arraycopy(current, 0, best, 0, best.length);
             }
         }
+        return best;
+    }
 
-        int[] x = new int[size];
-        for (int i = size - 1; i >= 0; i--) {
-            if (a[i][i] == 0) {
-                if (b[i] != 0) throw new NotSolvableException("Problem not solvable");
-                continue;
-            }
-            x[i] = b[i];
-            for (int j = i + 1; j < size; j++)
-                x[i] ^= (a[i][j] & x[j]);
-        }
-
-        int moves = 0;
-        for (int value : x)
-            if (value == 1) moves++;
-        return moves;
+    /**
+     * The optimal search tries all {@code 2^k} combinations of the {@code k} quiet patterns and touches every
+     * word of the board for each, so it is only offered while that product stays within budget.
+     */
+    public static boolean supportsOptimalSearch(int n) {
+        int patterns = QuietPatterns.count(n);
+        return patterns < Long.SIZE - 1 && (1L << patterns) <= MAX_OPTIMAL_SEARCH_WORDS / BitMatrix.wordsFor(n * n);
     }
 
-    public static boolean checkIfCorrectSolution(String problemDescription, List<SolutionStepAddDTO> solutionStepAddDTOS) {
-        int length = problemDescription.length();
-        int n = (int) Math.sqrt(length);
-        char[] board = problemDescription.toCharArray();
+    static boolean usesLightChasing(int n) {
+        return n >= LIGHT_CHASING_MIN_SIZE;
+    }
 
-        for (SolutionStepAddDTO step : solutionStepAddDTOS) {
-            int x = step.x();
-            int y = step.y();
-            press(board, x, y, n);
+    public static boolean checkIfCorrectSolution(Board problem, List<SolutionStepAddDTO> solutionStepAddDTOS) {
+        long startTime = System.nanoTime();
+        int n = problem.getSize();
+        PressMasks masks = PressMasks.forSize(n);
+        int words = masks.getWords();
+
+        long[] presses = PRESS_BUFFER.get();
+        if (presses.length < words) {
+            presses = new long[words];
+            PRESS_BUFFER.set(presses);
+        } else {
+            Arrays.fill(presses, 0, words, 0L);
         }
 
-        for (char c : board)
-            if (c != '1') return false;
-        return true;
-    }
+        for (int i = 0; i < solutionStepAddDTOS.size(); i++) {
+            SolutionStepAddDTO step = solutionStepAddDTOS.get(i);
+            BitMatrix.flipBit(presses, (n - 1 - step.y()) * n + step.x());
+        }
 
-    private static void press(char[] board, int x, int y, int n) {
-        toggle(board, x, y, n);
-        toggle(board, x - 1, y, n);
-        toggle(board, x + 1, y, n);
-        toggle(board, x, y - 1, n);
-        toggle(board, x, y + 1, n);
-    }
+        long[] cells = problem.getCells();
+        boolean correct = true;
+        for (int i = 0; i < words && correct; i++)
+            correct = masks.isAllOn(cells[i] ^ masks.toggledWord(presses, i), i);
 
-    private static void toggle(char[] board, int x, int y, int n) {
-        if (x < 0 || y < 0 || x >= n || y >= n) return;
-        int move = (n - 1 - y) * n + x;
-        board[move] = (board[move] == '1') ? '0' : '1';
+        SolverMetrics.recordSolutionCheck(n, correct, System.nanoTime() - startTime);
+        return correct;
     }
 }
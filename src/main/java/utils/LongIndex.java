@@ -0,0 +1,62 @@
+package utils;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code long} values, without boxing.
+ */
+public class LongIndex {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(long key, long missing) {
+        if (key <= 0) return missing;
+
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot];
+            if (keys[slot] == EMPTY) return missing;
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key <= 0)
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        if ((size + 1) * 2 > keys.length)
+            grow();
+
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) size++;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+    }
+}
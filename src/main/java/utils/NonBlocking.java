@@ -0,0 +1,27 @@
+package utils;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.util.function.Supplier;
+
+public class NonBlocking {
+
+    public NonBlocking() {}
+
+    /**
+     * Completes on the calling event-loop thread when {@code cached} is present. Otherwise runs {@code blocking}
+     * on the worker pool in a transaction of its own, so the event loop never waits on JDBC.
+     */
+    public static <T> Uni<T> cachedOrBlocking(T cached, Supplier<T> blocking) {
+        if (cached != null) return Uni.createFrom().item(cached);
+
+        return blocking(blocking);
+    }
+
+    public static <T> Uni<T> blocking(Supplier<T> blocking) {
+        return Uni.createFrom().item(() -> QuarkusTransaction.requiringNew().call(blocking::get))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+}
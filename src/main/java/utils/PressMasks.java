@@ -0,0 +1,65 @@
+package utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PressMasks {
+    private static final Map<Integer, PressMasks> CACHE = new ConcurrentHashMap<>();
+
+    private final int n;
+    private final int words;
+    private final long[] notFirstColumn;
+    private final long[] notLastColumn;
+    private final long[] allCells;
+
+    private PressMasks(int n) {
+        this.n = n;
+        this.words = BitMatrix.wordsFor(n * n);
+        this.notFirstColumn = new long[words];
+        this.notLastColumn = new long[words];
+        this.allCells = new long[words];
+        for (int cell = 0; cell < n * n; cell++) {
+            BitMatrix.setBit(allCells, cell);
+            if (cell % n != 0) BitMatrix.setBit(notFirstColumn, cell);
+            if (cell % n != n - 1) BitMatrix.setBit(notLastColumn, cell);
+        }
+    }
+
+    public static PressMasks forSize(int n) {
+        return CACHE.computeIfAbsent(n, PressMasks::new);
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Word {@code i} of the lights toggled by the press set: every press flips itself, its row neighbours
+     * (the column masks stop them wrapping into the next row) and the cells one row above and below.
+     */
+    public long toggledWord(long[] presses, int i) {
+        long left = presses[i] << 1 | (i > 0 ? presses[i - 1] >>> 63 : 0);
+        long right = presses[i] >>> 1 | (i < words - 1 ? presses[i + 1] << 63 : 0);
+        return presses[i]
+                ^ (left & notFirstColumn[i])
+                ^ (right & notLastColumn[i])
+                ^ wordAt(presses, ((long) i << 6) - n)
+                ^ wordAt(presses, ((long) i << 6) + n);
+    }
+
+    public boolean isAllOn(long word, int i) {
+        return (word & allCells[i]) == allCells[i];
+    }
+
+    private long wordAt(long[] bits, long position) {
+        if (position <= -64 || position >= (long) words << 6) return 0;
+        if (position < 0) return bits[0] << -position;
+
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = bits[word] >>> offset;
+        if (offset != 0 && word + 1 < words)
+            value |= bits[word + 1] << (64 - offset);
+        return value;
+    }
+}
@@ -0,0 +1,28 @@
+package utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class PressSet {
+
+    public PressSet() {  }
+
+    /**
+     * Reduces a move sequence to the cells pressed an odd number of times, packed like a board. Press order
+     * does not matter and two presses of a cell cancel out, so all such rewrites of a solution share one set.
+     */
+    public static byte[] canonical(int[] moves, int cells) {
+        long[] presses = new long[BitMatrix.wordsFor(cells)];
+        for (int move : moves)
+            BitMatrix.flipBit(presses, move);
+        return BitMatrix.toBytes(presses, cells);
+    }
+
+    public static byte[] hash(byte[] presses) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(presses);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package utils;
 
 import jakarta.ws.rs.BadRequestException;
 
+import java.util.List;
+
 public class QueryArgs {
 
     public QueryArgs() {  }
@@ -25,4 +27,25 @@ public class QueryArgs {
         if (size <= 0)
             throw new BadRequestException("Invalid size number: " + size);
     }
+
+    /**
+     * Appends the bounds that are given as {@code column >= ?n} and {@code column <= ?n} conditions. With
+     * {@code notNull} and no bounds the column is still required to be set, so it can serve as a keyset sort key.
+     */
+    public static <T extends Comparable<T>> void addRange(String column, String name, T min, T max, boolean notNull,
+                                                          List<String> conditions, List<Object> arguments) {
+        if (min != null && max != null && min.compareTo(max) > 0)
+            throw new BadRequestException("Invalid " + name + " range: " + min + " > " + max);
+
+        if (min != null) {
+            arguments.add(min);
+            conditions.add(column + " >= ?" + arguments.size());
+        }
+        if (max != null) {
+            arguments.add(max);
+            conditions.add(column + " <= ?" + arguments.size());
+        }
+        if (notNull && min == null && max == null)
+            conditions.add(column + " is not null");
+    }
 }
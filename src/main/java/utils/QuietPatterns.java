@@ -0,0 +1,36 @@
+package utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class QuietPatterns {
+    private static final Map<Integer, long[][]> CACHE = new ConcurrentHashMap<>();
+
+    public QuietPatterns() {}
+
+    /**
+     * Quiet patterns are the press sets that leave every light unchanged, i.e. the kernel of the toggle matrix.
+     * The matrix is symmetric, so a board is solvable exactly when its target is orthogonal to all of them.
+     * Only sizes below the light-chasing threshold are cached; larger ones can hold hundreds of patterns of
+     * {@code n^2} bits each, so they are rebuilt on the rare occasions they are needed.
+     */
+    public static long[][] forSize(int n) {
+        if (LightsOutSolver.usesLightChasing(n))
+            return LightChaser.forSize(n).quietPatterns();
+        return CACHE.computeIfAbsent(n, size -> BitMatrix.lightsOut(size).kernelBasis());
+    }
+
+    /**
+     * The number of quiet patterns, read from the rank of the light-chasing system for large boards
+     * instead of building the patterns themselves.
+     */
+    public static int count(int n) {
+        return LightsOutSolver.usesLightChasing(n) ? LightChaser.forSize(n).quietPatternCount() : forSize(n).length;
+    }
+
+    public static boolean isSolvable(long[] target, int n) {
+        for (long[] pattern : forSize(n))
+            if (!BitMatrix.evenParity(target, pattern)) return false;
+        return true;
+    }
+}
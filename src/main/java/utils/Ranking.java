@@ -0,0 +1,58 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Scores kept sorted by score descending, then id ascending. Updates cost {@code O(log n)} and reading the
+ * top {@code k} walks only those {@code k} entries. Entries whose score drops to zero are removed.
+ */
+public class Ranking {
+    private final TreeSet<Entry> sorted = new TreeSet<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public Ranking() {  }
+
+    public synchronized void add(long id, String label, long delta) {
+        Entry current = entries.remove(id);
+        long score = delta;
+        if (current != null) {
+            sorted.remove(current);
+            score += current.score();
+        }
+        if (score <= 0) return;
+
+        Entry entry = new Entry(id, label, score);
+        entries.put(id, entry);
+        sorted.add(entry);
+    }
+
+    public synchronized long score(long id) {
+        Entry entry = entries.get(id);
+        return entry == null ? 0 : entry.score();
+    }
+
+    public synchronized List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, sorted.size()));
+        Iterator<Entry> iterator = sorted.iterator();
+        while (top.size() < k && iterator.hasNext())
+            top.add(iterator.next());
+        return top;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public record Entry(long id, String label, long score) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Long.compare(other.score, score);
+            return byScore != 0 ? byScore : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package utils;
+
+public class ReducedBitMatrix {
+    private final int columns;
+    private final int rank;
+    private final int[] pivotColumns;
+    private final long[][] transform;
+    private final long[][] kernelBasis;
+
+    public ReducedBitMatrix(int columns, int rank, int[] pivotColumns, long[][] transform, long[][] kernelBasis) {
+        this.columns = columns;
+        this.rank = rank;
+        this.pivotColumns = pivotColumns;
+        this.transform = transform;
+        this.kernelBasis = kernelBasis;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public long[][] getKernelBasis() {
+        return kernelBasis;
+    }
+
+    public boolean isSolvable(long[] rhs) {
+        for (int row = rank; row < transform.length; row++)
+            if (!BitMatrix.evenParity(transform[row], rhs)) return false;
+        return true;
+    }
+
+    public long[] solve(long[] rhs) {
+        if (!isSolvable(rhs)) return null;
+
+        long[] x = new long[BitMatrix.wordsFor(columns)];
+        for (int row = 0; row < rank; row++)
+            if (!BitMatrix.evenParity(transform[row], rhs)) BitMatrix.setBit(x, pivotColumns[row]);
+        return x;
+    }
+}
@@ -0,0 +1,32 @@
+package utils;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+public class Transactions {
+
+    public Transactions() {}
+
+    /**
+     * Runs {@code action} once the current transaction commits, or right away when there is none.
+     */
+    public static void afterCommit(TransactionSynchronizationRegistry registry, Runnable action) {
+        if (registry.getTransactionKey() == null) {
+            action.run();
+            return;
+        }
+
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED)
+                    action.run();
+            }
+        });
+    }
+}
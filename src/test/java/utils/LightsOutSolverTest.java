@@ -0,0 +1,277 @@
+package utils;
+
+import dtos.SolutionStepAddDTO;
+import exceptions.not_solvable.NotSolvableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the solver with a plain reference: presses applied cell by cell and Gaussian elimination over
+ * {@link BitSet} rows. Sizes from {@code 32} up go through light chasing, the smaller ones through the matrix.
+ */
+class LightsOutSolverTest {
+    private static final int[] LIGHT_CHASING_SIZES = {32, 33, 34, 35, 37};
+    private static final int MAX_EXHAUSTIVE_SIZE = 5;
+
+    @Test
+    void lightChasingStartsAtSize32() {
+        assertFalse(LightsOutSolver.usesLightChasing(31));
+        for (int n : LIGHT_CHASING_SIZES)
+            assertTrue(LightsOutSolver.usesLightChasing(n));
+    }
+
+    @Test
+    void solvabilityMatchesElimination() {
+        Random random = new Random(1);
+        for (int n = 1; n <= 20; n++)
+            for (int i = 0; i < 20; i++)
+                assertSolvabilityMatches(randomBoard(n, random));
+    }
+
+    @Test
+    void lightChasingSolvabilityMatchesElimination() {
+        Random random = new Random(2);
+        int unsolvable = 0;
+        for (int n : LIGHT_CHASING_SIZES)
+            for (int i = 0; i < 4; i++)
+                if (!assertSolvabilityMatches(randomBoard(n, random)))
+                    unsolvable++;
+        assertTrue(unsolvable > 0);
+    }
+
+    @Test
+    void solutionsSolveTheBoard() {
+        Random random = new Random(3);
+        for (int n = 1; n <= 20; n++)
+            for (int i = 0; i < 10; i++)
+                assertSolves(solvedBy(n, randomPresses(n, random)));
+    }
+
+    @Test
+    void lightChasingSolutionsSolveTheBoard() {
+        Random random = new Random(4);
+        for (int n : LIGHT_CHASING_SIZES)
+            for (int i = 0; i < 3; i++)
+                assertSolves(solvedBy(n, randomPresses(n, random)));
+    }
+
+    @Test
+    void unsolvableBoardsAreRejected() {
+        Random random = new Random(5);
+        for (int n : new int[]{4, 5, 33}) {
+            Board board;
+            do board = randomBoard(n, random);
+            while (referenceSolve(board) != null);
+
+            Board unsolvable = board;
+            assertThrows(NotSolvableException.class, () -> LightsOutSolver.checkIfSolvable(unsolvable));
+            assertThrows(NotSolvableException.class, () -> LightsOutSolver.findOptimalSolution(unsolvable));
+        }
+    }
+
+    @Test
+    void optimalSolutionsAreMinimal() {
+        Random random = new Random(6);
+        for (int n = 1; n <= MAX_EXHAUSTIVE_SIZE; n++) {
+            byte[] fewestPresses = fewestPresses(n);
+            int cells = n * n;
+            for (int i = 0; i < 300; i++) {
+                int toggled = random.nextInt(1 << cells);
+                if (fewestPresses[toggled] < 0) continue;
+
+                Board board = new Board(n, new long[]{~toggled & ((1L << cells) - 1)});
+                long[] presses = LightsOutSolver.findOptimalSolution(board);
+                assertArrayEquals(board.target(), toggled(n, presses));
+                assertEquals(fewestPresses[toggled], BitMatrix.bitCount(presses), "n=" + n + ", toggled=" + toggled);
+            }
+        }
+    }
+
+    @Test
+    void verifierAcceptsSolutions() {
+        Random random = new Random(7);
+        for (int n : new int[]{1, 3, 5, 8, 9, 16, 33}) {
+            long[] presses = randomPresses(n, random);
+            assertTrue(LightsOutSolver.checkIfCorrectSolution(solvedBy(n, presses), toSteps(n, presses)));
+        }
+    }
+
+    @Test
+    void verifierRejectsIncompleteSolutions() {
+        Random random = new Random(8);
+        for (int n : new int[]{3, 5, 8, 9, 16, 33}) {
+            long[] presses = randomPresses(n, random);
+            BitMatrix.setBit(presses, 0);
+            List<SolutionStepAddDTO> steps = toSteps(n, presses);
+            steps.remove(steps.size() - 1);
+
+            assertFalse(LightsOutSolver.checkIfCorrectSolution(solvedBy(n, presses), steps));
+        }
+    }
+
+    @Test
+    void verifierMatchesSimulation() {
+        Random random = new Random(9);
+        for (int n = 1; n <= 12; n++) {
+            for (int i = 0; i < 20; i++) {
+                Board board = i % 2 == 0 ? randomBoard(n, random) : solvedBy(n, randomPresses(n, random));
+                List<SolutionStepAddDTO> steps = new ArrayList<>();
+                long[] presses = new long[BitMatrix.wordsFor(n * n)];
+                for (int step = random.nextInt(2 * n * n + 1); step > 0; step--) {
+                    int cell = random.nextInt(n * n);
+                    steps.add(new SolutionStepAddDTO(cell % n, n - 1 - cell / n, steps.size()));
+                    BitMatrix.flipBit(presses, cell);
+                }
+
+                boolean expected = Arrays.equals(board.target(), toggled(n, presses));
+                assertEquals(expected, LightsOutSolver.checkIfCorrectSolution(board, steps));
+            }
+        }
+    }
+
+    private static boolean assertSolvabilityMatches(Board board) {
+        boolean expected = referenceSolve(board) != null;
+        boolean actual;
+        try {
+            LightsOutSolver.checkIfSolvable(board);
+            actual = true;
+        } catch (NotSolvableException e) {
+            actual = false;
+        }
+        assertEquals(expected, actual, "n=" + board.getSize() + ", board=" + board.toDescription());
+        return expected;
+    }
+
+    private static void assertSolves(Board board) {
+        long[] presses = LightsOutSolver.findOptimalSolution(board);
+        assertNotNull(presses);
+        assertArrayEquals(board.target(), toggled(board.getSize(), presses));
+    }
+
+    /**
+     * The fewest presses that toggle exactly the cells of each mask, or {@code -1} when no presses do,
+     * found by trying every press set in Gray-code order.
+     */
+    private static byte[] fewestPresses(int n) {
+        int cells = n * n;
+        int[] masks = new int[cells];
+        for (int cell = 0; cell < cells; cell++)
+            masks[cell] = (int) toggled(n, new long[]{1L << cell})[0];
+
+        byte[] fewest = new byte[1 << cells];
+        Arrays.fill(fewest, (byte) -1);
+        fewest[0] = 0;
+        int toggled = 0;
+        for (int code = 1; code < (1 << cells); code++) {
+            toggled ^= masks[Integer.numberOfTrailingZeros(code)];
+            int presses = Integer.bitCount(code ^ (code >>> 1));
+            if (fewest[toggled] < 0 || presses < fewest[toggled])
+                fewest[toggled] = (byte) presses;
+        }
+        return fewest;
+    }
+
+    /**
+     * Solves {@code A x = target} by Gauss-Jordan elimination on the augmented matrix, one row per cell.
+     */
+    private static long[] referenceSolve(Board board) {
+        int n = board.getSize();
+        int cells = n * n;
+        long[] target = board.target();
+        BitSet[] rows = new BitSet[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            rows[cell] = new BitSet(cells + 1);
+            for (int press : neighbourhood(n, cell))
+                rows[cell].set(press);
+            if (BitMatrix.testBit(target, cell))
+                rows[cell].set(cells);
+        }
+
+        int[] pivots = new int[cells];
+        int rank = 0;
+        for (int column = 0; column < cells && rank < cells; column++) {
+            int pivot = rank;
+            while (pivot < cells && !rows[pivot].get(column)) pivot++;
+            if (pivot == cells) continue;
+
+            BitSet swap = rows[rank];
+            rows[rank] = rows[pivot];
+            rows[pivot] = swap;
+            for (int row = 0; row < cells; row++)
+                if (row != rank && rows[row].get(column))
+                    rows[row].xor(rows[rank]);
+            pivots[rank++] = column;
+        }
+        for (int row = rank; row < cells; row++)
+            if (rows[row].get(cells))
+                return null;
+
+        long[] presses = new long[BitMatrix.wordsFor(cells)];
+        for (int row = 0; row < rank; row++)
+            if (rows[row].get(cells))
+                BitMatrix.setBit(presses, pivots[row]);
+        return presses;
+    }
+
+    private static long[] toggled(int n, long[] presses) {
+        long[] toggled = new long[BitMatrix.wordsFor(n * n)];
+        for (int cell = 0; cell < n * n; cell++)
+            if (BitMatrix.testBit(presses, cell))
+                for (int neighbour : neighbourhood(n, cell))
+                    BitMatrix.flipBit(toggled, neighbour);
+        return toggled;
+    }
+
+    private static List<Integer> neighbourhood(int n, int cell) {
+        int row = cell / n;
+        int column = cell % n;
+        List<Integer> cells = new ArrayList<>(List.of(cell));
+        if (row > 0) cells.add(cell - n);
+        if (row < n - 1) cells.add(cell + n);
+        if (column > 0) cells.add(cell - 1);
+        if (column < n - 1) cells.add(cell + 1);
+        return cells;
+    }
+
+    /**
+     * The board that {@code presses} turn all on: every cell starts on and the pressed neighbourhoods are off.
+     */
+    private static Board solvedBy(int n, long[] presses) {
+        long[] cells = toggled(n, presses);
+        for (int cell = 0; cell < n * n; cell++)
+            BitMatrix.flipBit(cells, cell);
+        return new Board(n, cells);
+    }
+
+    private static Board randomBoard(int n, Random random) {
+        long[] cells = new long[BitMatrix.wordsFor(n * n)];
+        for (int cell = 0; cell < n * n; cell++)
+            if (random.nextBoolean())
+                BitMatrix.setBit(cells, cell);
+        return new Board(n, cells);
+    }
+
+    private static long[] randomPresses(int n, Random random) {
+        return randomBoard(n, random).getCells();
+    }
+
+    private static List<SolutionStepAddDTO> toSteps(int n, long[] presses) {
+        List<SolutionStepAddDTO> steps = new ArrayList<>();
+        for (int cell = 0; cell < n * n; cell++)
+            if (BitMatrix.testBit(presses, cell))
+                steps.add(new SolutionStepAddDTO(cell % n, n - 1 - cell / n, steps.size()));
+        return steps;
+    }
+}
@@ -0,0 +1,49 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIndexTest {
+    private static final long MISSING = -1;
+
+    @Test
+    void returnsStoredValues() {
+        LongIndex index = new LongIndex(4);
+        for (long key = 1; key <= 100; key++)
+            index.put(key, key * 10);
+
+        assertEquals(100, index.size());
+        for (long key = 1; key <= 100; key++)
+            assertEquals(key * 10, index.get(key, MISSING));
+        assertEquals(MISSING, index.get(101, MISSING));
+    }
+
+    @Test
+    void zeroKeyIsMissing() {
+        LongIndex index = new LongIndex(16);
+        assertEquals(MISSING, index.get(0, MISSING));
+
+        index.put(1, 10);
+        index.put(2, 20);
+        assertEquals(MISSING, index.get(0, MISSING));
+    }
+
+    @Test
+    void negativeKeysAreMissing() {
+        LongIndex index = new LongIndex(16);
+        index.put(1, 10);
+
+        assertEquals(MISSING, index.get(-1, MISSING));
+        assertEquals(MISSING, index.get(Long.MIN_VALUE, MISSING));
+    }
+
+    @Test
+    void rejectsNonPositiveKeys() {
+        LongIndex index = new LongIndex(16);
+
+        assertThrows(IllegalArgumentException.class, () -> index.put(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.put(-5, 10));
+    }
+}